@@ -0,0 +1,131 @@
+package com.spring.multitenancy.benchmark;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import com.spring.multitenancy.Multitenancy.MultitenancyApplication;
+import com.spring.multitenancy.Multitenancy.config.TenantContext;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts MultitenancyApplication against a fresh in memory H2 database in MySQL mode. The database has the common
+ * schema and one schema per tenant, each holding the same CLIENT rows.
+ */
+final class BenchmarkApplication {
+
+    /**
+     * Represents the number of CLIENT rows of every schema.
+     */
+    static final int CLIENT_ROWS = 10000;
+
+    private static final String USERNAME = "sa";
+
+    private static final String PASSWORD = "benchmark";
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * This method is used to create and seed the database, then start the application on it.
+     *
+     * @param tenants    Represents the tenant schemas to create.
+     * @param properties Represents additional application properties, as --name=value arguments.
+     *
+     * @return ConfigurableApplicationContext Represents the started application.
+     */
+    static ConfigurableApplicationContext start(String[] tenants, String... properties) {
+        final String url = "jdbc:h2:mem:benchmark" + databases.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        final List<String> schemas = new ArrayList<>(Arrays.asList(tenants));
+        schemas.add(Constant.DEFAULT_SCHEMA);
+        try {
+            createSchemas(url, schemas);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the benchmark database " + url, e);
+        }
+
+        final List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + USERNAME,
+                "--spring.datasource.password=" + PASSWORD,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--multitenancy.connection.switch-strategy=SCHEMA",
+                "--multitenancy.dao.slow-query-threshold-ms=-1",
+                "--multitenancy.warmup.enabled=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"));
+        args.addAll(Arrays.asList(properties));
+        return new SpringApplicationBuilder(MultitenancyApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run(args.toArray(new String[args.size()]));
+    }
+
+    /**
+     * @return the tenant identifiers tenant_0 to tenant_(count - 1)
+     */
+    static String[] tenants(int count) {
+        final String[] tenants = new String[count];
+        for (int i = 0; i < count; i++) {
+            tenants[i] = "tenant_" + i;
+        }
+        return tenants;
+    }
+
+    /**
+     * @return the identifier of the CLIENT row with the given index, identifiers sort like their index
+     */
+    static String clientId(int index) {
+        return String.format("client-%06d", index);
+    }
+
+    /**
+     * This method is used to run a DAO call in a transaction of the given tenant, like a request would.
+     */
+    static <T> T inTenant(String tenant, TransactionTemplate transactionTemplate, TransactionCallback<T> callback) {
+        TenantContext.setTenant(tenant);
+        try {
+            return transactionTemplate.execute(callback);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static void createSchemas(String url, List<String> schemas) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            for (String schema : schemas) {
+                // quoted, the schema switch passes the tenant identifier as is
+                statement.execute("CREATE SCHEMA \"" + schema + "\"");
+                statement.execute("CREATE TABLE \"" + schema + "\".CLIENT "
+                        + "(CLIENT_ID VARCHAR(50) PRIMARY KEY, DESCRIPTION VARCHAR(100))");
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO \"" + schema + "\".CLIENT (CLIENT_ID, DESCRIPTION) VALUES (?, ?)")) {
+                    for (int i = 0; i < CLIENT_ROWS; i++) {
+                        insert.setString(1, clientId(i));
+                        insert.setString(2, "client " + i + " of " + schema);
+                        insert.addBatch();
+                        if ((i + 1) % 1000 == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.spring.multitenancy.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks once per thread count and writes one JSON result file per thread count, so runs can be
+ * compared by a regression check.
+ * <p>
+ * Arguments: comma separated thread counts, result directory, benchmark include pattern.
+ */
+public final class BenchmarkMatrix {
+
+    private BenchmarkMatrix() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final File resultDirectory = new File(args[1]);
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs()) {
+            throw new IllegalStateException("Could not create " + resultDirectory);
+        }
+        for (String threadCount : args[0].split(",")) {
+            final int threads = Integer.parseInt(threadCount.trim());
+            final Options options = new OptionsBuilder()
+                    .include(args[2])
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDirectory, "results-" + threads + "-threads.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.spring.multitenancy.benchmark;
+
+import com.spring.multitenancy.Multitenancy.dao.ClientDAO;
+import com.spring.multitenancy.Multitenancy.dao.KeysetPage;
+import com.spring.multitenancy.Multitenancy.entity.Client;
+import org.hibernate.criterion.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the page at a given depth with an offset, IGenericDAO.getCriteriaWithPagination, and with a cursor,
+ * IGenericDAO.getKeysetPage. The offset cost grows with the depth, the cursor cost should not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class DaoPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "100", "400"})
+    public int page;
+
+    @Param({"1", "8"})
+    public int tenantCount;
+
+    private ConfigurableApplicationContext context;
+
+    private ClientDAO clientDAO;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String[] tenants;
+
+    /**
+     * Represents the cursor of the benchmarked page, every schema holds the same rows.
+     */
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void start() {
+        tenants = BenchmarkApplication.tenants(tenantCount);
+        context = BenchmarkApplication.start(tenants,
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        clientDAO = context.getBean(ClientDAO.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        cursor = null;
+        for (int i = 0; i < page; i++) {
+            final String previous = cursor;
+            cursor = BenchmarkApplication.inTenant(tenants[0], transactionTemplate, status -> clientDAO
+                    .<Client>getKeysetPage(Client.class, "clientId", true, previous, PAGE_SIZE).getNextCursor());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Client> offsetPage() {
+        return BenchmarkApplication.inTenant(randomTenant(), transactionTemplate,
+                status -> clientDAO.executeCriteria(clientDAO
+                        .getCriteriaWithPagination(Client.class, page * PAGE_SIZE, PAGE_SIZE)
+                        .addOrder(Order.asc("clientId"))));
+    }
+
+    @Benchmark
+    public KeysetPage<Client> keysetPage() {
+        return BenchmarkApplication.inTenant(randomTenant(), transactionTemplate,
+                status -> clientDAO.getKeysetPage(Client.class, "clientId", true, cursor, PAGE_SIZE));
+    }
+
+    private String randomTenant() {
+        return tenants[ThreadLocalRandom.current().nextInt(tenants.length)];
+    }
+}
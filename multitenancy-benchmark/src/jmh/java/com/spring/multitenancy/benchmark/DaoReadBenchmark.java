@@ -0,0 +1,87 @@
+package com.spring.multitenancy.benchmark;
+
+import com.spring.multitenancy.Multitenancy.dao.ClientDAO;
+import com.spring.multitenancy.Multitenancy.entity.Client;
+import org.hibernate.criterion.Restrictions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single entity get and criteria list through GenericDAO, in a read only transaction of a tenant. The second-level
+ * and query caches are off, so every operation reaches the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class DaoReadBenchmark {
+
+    /**
+     * Represents the number of rows read by criteriaList.
+     */
+    private static final int CRITERIA_ROWS = 100;
+
+    @Param({"1", "8"})
+    public int tenantCount;
+
+    private ConfigurableApplicationContext context;
+
+    private ClientDAO clientDAO;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String[] tenants;
+
+    @Setup(Level.Trial)
+    public void start() {
+        tenants = BenchmarkApplication.tenants(tenantCount);
+        context = BenchmarkApplication.start(tenants,
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        clientDAO = context.getBean(ClientDAO.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Client getEntity() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final String clientId = BenchmarkApplication.clientId(random.nextInt(BenchmarkApplication.CLIENT_ROWS));
+        return BenchmarkApplication.inTenant(tenants[random.nextInt(tenants.length)], transactionTemplate,
+                status -> clientDAO.get(clientId));
+    }
+
+    @Benchmark
+    public List<Client> criteriaList() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int from = random.nextInt(BenchmarkApplication.CLIENT_ROWS - CRITERIA_ROWS);
+        return BenchmarkApplication.inTenant(tenants[random.nextInt(tenants.length)], transactionTemplate,
+                status -> clientDAO.executeCriteria(clientDAO.getCriteria().add(Restrictions.between("clientId",
+                        BenchmarkApplication.clientId(from), BenchmarkApplication.clientId(from + CRITERIA_ROWS - 1)))));
+    }
+}
@@ -0,0 +1,88 @@
+package com.spring.multitenancy.benchmark;
+
+import com.spring.multitenancy.Multitenancy.dao.BulkWriteResult;
+import com.spring.multitenancy.Multitenancy.dao.ClientDAO;
+import com.spring.multitenancy.Multitenancy.entity.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inserting new clients with IGenericDAO.saveOrUpdateAll, flushing and clearing the session every batchSize
+ * entities. Every operation writes the same number of rows in one transaction of a tenant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class DaoWriteBenchmark {
+
+    /**
+     * Represents the number of clients written per operation.
+     */
+    private static final int ROWS_PER_OPERATION = 200;
+
+    @Param({"1", "20", "50", "200"})
+    public int batchSize;
+
+    @Param({"1", "8"})
+    public int tenantCount;
+
+    private final AtomicLong nextClient = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private ClientDAO clientDAO;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String[] tenants;
+
+    @Setup(Level.Trial)
+    public void start() {
+        tenants = BenchmarkApplication.tenants(tenantCount);
+        context = BenchmarkApplication.start(tenants);
+        clientDAO = context.getBean(ClientDAO.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public BulkWriteResult saveOrUpdateAll() {
+        final List<Client> clients = new ArrayList<>(ROWS_PER_OPERATION);
+        for (int i = 0; i < ROWS_PER_OPERATION; i++) {
+            final Client client = new Client();
+            client.setClientId("written-" + nextClient.incrementAndGet());
+            client.setDescription("written by DaoWriteBenchmark");
+            clients.add(client);
+        }
+        final String tenant = tenants[ThreadLocalRandom.current().nextInt(tenants.length)];
+        return BenchmarkApplication.inTenant(tenant, transactionTemplate,
+                status -> clientDAO.saveOrUpdateAll(clients, batchSize));
+    }
+}
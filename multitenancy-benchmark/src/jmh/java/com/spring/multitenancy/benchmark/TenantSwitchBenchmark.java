@@ -0,0 +1,97 @@
+package com.spring.multitenancy.benchmark;
+
+import com.spring.multitenancy.Multitenancy.config.TenantContext;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handing Hibernate a connection on the tenant schema, MultitenantConnectionProviderImpl.getConnection and
+ * releaseConnection, and of resolving the tenant of the current thread. Every call moves to the next tenant, so with
+ * several tenants the shared pool switches schema on each checkout, unless the affinity layer has a connection
+ * already on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class TenantSwitchBenchmark {
+
+    @Param({"SHARED", "TENANT_AFFINITY"})
+    public String connectionMode;
+
+    @Param({"1", "8"})
+    public int tenantCount;
+
+    private ConfigurableApplicationContext context;
+
+    private MultiTenantConnectionProvider connectionProvider;
+
+    private CurrentTenantIdentifierResolver tenantResolver;
+
+    private String[] tenants;
+
+    @Setup(Level.Trial)
+    public void start() {
+        tenants = BenchmarkApplication.tenants(tenantCount);
+        context = BenchmarkApplication.start(tenants, "--multitenancy.connection.mode=" + connectionMode);
+        connectionProvider = context.getBean(MultiTenantConnectionProvider.class);
+        tenantResolver = context.getBean(CurrentTenantIdentifierResolver.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getConnection(TenantCursor cursor) throws SQLException {
+        final String tenant = cursor.next(tenants);
+        final Connection connection = connectionProvider.getConnection(tenant);
+        connectionProvider.releaseConnection(tenant, connection);
+    }
+
+    @Benchmark
+    public String resolveTenant(TenantCursor cursor) {
+        TenantContext.setTenant(cursor.next(tenants));
+        try {
+            return tenantResolver.resolveCurrentTenantIdentifier();
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * Round robin over the tenants, per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class TenantCursor {
+
+        private int next;
+
+        String next(String[] tenants) {
+            final String tenant = tenants[next];
+            next = (next + 1) % tenants.length;
+            return tenant;
+        }
+    }
+}
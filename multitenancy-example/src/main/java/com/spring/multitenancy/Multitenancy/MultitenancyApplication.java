@@ -1,12 +1,17 @@
 package com.spring.multitenancy.Multitenancy;
 
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.config.SchemaSwitcher;
+import com.spring.multitenancy.Multitenancy.config.TenantAffinityDataSource;
 import com.spring.multitenancy.Multitenancy.config.TenantContextInterceptor;
+import com.spring.multitenancy.Multitenancy.config.TenantStatementCache;
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
 import org.hibernate.SessionFactory;
 import org.hibernate.jpa.HibernateEntityManagerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -31,14 +36,19 @@ public class MultitenancyApplication extends WebMvcConfigurerAdapter{
 
 	@Bean
 	@Primary
-	public DataSource dataSource() {
-		return DataSourceBuilder
-				.create()
-				.username("root")
-				.password("root")
-				.url("jdbc:mysql://localhost:3306/common")
-				.driverClassName("com.mysql.jdbc.Driver")
-				.build();
+	public static DataSource dataSource(DataSourceProperties dataSourceProperties, MultitenancyProperties properties,
+										SchemaSwitcher schemaSwitcher) {
+		DataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().build();
+		MultitenancyProperties.StatementCache statementCache = properties.getConnection().getStatementCache();
+		if (statementCache.isEnabled() && dataSource instanceof PoolConfiguration) {
+			((PoolConfiguration) dataSource).setJdbcInterceptors(
+					TenantStatementCache.interceptorDefinition(statementCache.getMaxStatements(),
+							statementCache.getMaxTotalStatements()));
+		}
+		if (properties.getConnection().getMode() == MultitenancyProperties.Connection.Mode.TENANT_AFFINITY) {
+			return new TenantAffinityDataSource(dataSource, schemaSwitcher, properties.getConnection().getAffinity());
+		}
+		return dataSource;
 	}
 
 	@Bean
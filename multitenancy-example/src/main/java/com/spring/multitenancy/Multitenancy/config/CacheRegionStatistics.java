@@ -0,0 +1,50 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes the hit, miss and put counts of every second-level cache region.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Cache,name=cacheRegionStatistics")
+public class CacheRegionStatistics {
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @ManagedOperation(description = "Hits, misses, puts and in-memory size of every second-level cache region")
+    public Map<String, String> getRegionStatistics() {
+        final Statistics statistics = sessionFactory.getStatistics();
+        Map<String, String> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(regionName);
+            final long hits = region.getHitCount();
+            final long lookups = hits + region.getMissCount();
+            regions.put(regionName, "hits=" + hits + ", misses=" + region.getMissCount()
+                    + ", puts=" + region.getPutCount() + ", size=" + region.getElementCountInMemory()
+                    + ", hitRatio=" + (lookups == 0 ? 0d : (double) hits / lookups));
+        }
+        return regions;
+    }
+
+    @ManagedOperation(description = "Evicts every entry of a query cache region")
+    @ManagedOperationParameter(name = "regionName", description = "Name of the query cache region")
+    public void evictQueryRegion(String regionName) {
+        sessionFactory.getCache().evictQueryRegion(regionName);
+    }
+
+    @ManagedOperation(description = "Evicts every entry of every second-level cache region")
+    public void evictAllRegions() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+}
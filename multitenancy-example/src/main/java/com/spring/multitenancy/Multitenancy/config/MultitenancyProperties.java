@@ -0,0 +1,693 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import com.spring.multitenancy.Multitenancy.dao.FetchPlan;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Externalized settings of the multitenancy infrastructure, bound from the {@code multitenancy.*} properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "multitenancy")
+public class MultitenancyProperties {
+
+    private final Connection connection = new Connection();
+
+    private final Dao dao = new Dao();
+
+    private final Tenant tenant = new Tenant();
+
+    private final Warmup warmup = new Warmup();
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public Tenant getTenant() {
+        return tenant;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public static class Warmup {
+
+        /**
+         * Whether the tenants are warmed up before the application accepts requests.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Tenants warmed up first, the other registered tenants fill up to max-tenants.
+         */
+        private final List<String> tenants = new ArrayList<>();
+
+        /**
+         * Max number of tenants warmed up.
+         */
+        private int maxTenants = 20;
+
+        /**
+         * Number of connections opened at once per tenant.
+         */
+        private int connectionsPerTenant = 1;
+
+        /**
+         * Number of rows of the entity of every DAO read into the second-level cache per tenant.
+         */
+        private int maxEntities = 100;
+
+        /**
+         * Names of registered queries without parameters run per tenant, see NamedQueryRegistry.
+         */
+        private final List<String> queries = new ArrayList<>();
+
+        /**
+         * Time in milliseconds after which startup stops waiting for the warm-up.
+         */
+        private long timeoutMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getTenants() {
+            return tenants;
+        }
+
+        public int getMaxTenants() {
+            return maxTenants;
+        }
+
+        public void setMaxTenants(int maxTenants) {
+            this.maxTenants = maxTenants;
+        }
+
+        public int getConnectionsPerTenant() {
+            return connectionsPerTenant;
+        }
+
+        public void setConnectionsPerTenant(int connectionsPerTenant) {
+            this.connectionsPerTenant = connectionsPerTenant;
+        }
+
+        public int getMaxEntities() {
+            return maxEntities;
+        }
+
+        public void setMaxEntities(int maxEntities) {
+            this.maxEntities = maxEntities;
+        }
+
+        public List<String> getQueries() {
+            return queries;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public Dao getDao() {
+        return dao;
+    }
+
+    public static class Tenant {
+
+        /**
+         * Represents what a DAO call does when no tenant is bound to the TenantContext of its thread.
+         */
+        public enum Guard {
+            /**
+             * The call runs against the default schema.
+             */
+            OFF,
+            /**
+             * The call runs against the default schema and a warning with the stack trace is logged.
+             */
+            WARN,
+            /**
+             * The call fails with an ApplicationException.
+             */
+            FAIL
+        }
+
+        private Guard guard = Guard.OFF;
+
+        /**
+         * Whether TenantContextInterceptor rejects the requests of tenants unknown to TenantRegistry.
+         */
+        private boolean validate = true;
+
+        /**
+         * Interval in milliseconds between two reloads of TenantRegistry, 0 disables them.
+         */
+        private long refreshInterval = 60000;
+
+        /**
+         * Settings of single tenants, by tenant identifier.
+         */
+        private final Map<String, TenantOverride> overrides = new HashMap<>();
+
+        /**
+         * Sustained number of requests per second of a tenant, 0 for no limit.
+         */
+        private double rateLimit = 0;
+
+        /**
+         * Number of requests a tenant may send at once above its rate limit.
+         */
+        private int burst = 50;
+
+        /**
+         * Max number of requests of a tenant in progress at the same time, 0 for no limit.
+         */
+        private int maxConcurrentRequests = 0;
+
+        public Guard getGuard() {
+            return guard;
+        }
+
+        public void setGuard(Guard guard) {
+            this.guard = guard;
+        }
+
+        public boolean isValidate() {
+            return validate;
+        }
+
+        public void setValidate(boolean validate) {
+            this.validate = validate;
+        }
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Map<String, TenantOverride> getOverrides() {
+            return overrides;
+        }
+
+        public double getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(double rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+    }
+
+    public static class TenantOverride {
+
+        /**
+         * Max number of connections of the tenant pool, defaults to per-tenant.max-active.
+         */
+        private Integer maxActive;
+
+        /**
+         * Max number of idle connections of the tenant pool, defaults to per-tenant.max-idle.
+         */
+        private Integer maxIdle;
+
+        /**
+         * Whether the cached criteria and queries of the tenant use the query cache, defaults to true.
+         */
+        private Boolean queryCache;
+
+        /**
+         * Sustained number of requests per second of the tenant, defaults to tenant.rate-limit.
+         */
+        private Double rateLimit;
+
+        /**
+         * Number of requests the tenant may send at once above its rate limit, defaults to tenant.burst.
+         */
+        private Integer burst;
+
+        /**
+         * Max number of requests of the tenant in progress at the same time, defaults to
+         * tenant.max-concurrent-requests.
+         */
+        private Integer maxConcurrentRequests;
+
+        public Integer getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(Integer maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        public Integer getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(Integer maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public Boolean getQueryCache() {
+            return queryCache;
+        }
+
+        public void setQueryCache(Boolean queryCache) {
+            this.queryCache = queryCache;
+        }
+
+        public Double getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(Double rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Integer getBurst() {
+            return burst;
+        }
+
+        public void setBurst(Integer burst) {
+            this.burst = burst;
+        }
+
+        public Integer getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+    }
+
+    public static class Connection {
+
+        /**
+         * Represents how tenant connections are obtained by MultitenantConnectionProviderImpl.
+         */
+        public enum Mode {
+            /**
+             * One shared pool, the tenant schema is selected on every checkout.
+             */
+            SHARED,
+            /**
+             * One lazily created pool per tenant whose connections are already bound to the tenant schema.
+             */
+            PER_TENANT,
+            /**
+             * One shared pool whose returned connections are handed out to the tenant they were last used for.
+             */
+            TENANT_AFFINITY
+        }
+
+        /**
+         * Represents the JDBC property SchemaSwitcher sets to move a connection to a tenant schema.
+         */
+        public enum SwitchStrategy {
+            /**
+             * Connection.setCatalog, for databases where a schema is a catalog such as MySQL.
+             */
+            CATALOG,
+            /**
+             * Connection.setSchema, for databases with schemas inside a catalog such as H2.
+             */
+            SCHEMA
+        }
+
+        private Mode mode = Mode.SHARED;
+
+        /**
+         * How the shared pool connections are switched to a tenant schema, PER_TENANT pools always use the catalog.
+         */
+        private SwitchStrategy switchStrategy = SwitchStrategy.CATALOG;
+
+        private final PerTenant perTenant = new PerTenant();
+
+        private final Affinity affinity = new Affinity();
+
+        private final StatementCache statementCache = new StatementCache();
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public SwitchStrategy getSwitchStrategy() {
+            return switchStrategy;
+        }
+
+        public void setSwitchStrategy(SwitchStrategy switchStrategy) {
+            this.switchStrategy = switchStrategy;
+        }
+
+        public PerTenant getPerTenant() {
+            return perTenant;
+        }
+
+        public Affinity getAffinity() {
+            return affinity;
+        }
+
+        public StatementCache getStatementCache() {
+            return statementCache;
+        }
+    }
+
+    public static class PerTenant {
+
+        /**
+         * Max number of connections a single tenant pool may hand out.
+         */
+        private int maxActive = 10;
+
+        /**
+         * Max number of idle connections kept by a single tenant pool.
+         */
+        private int maxIdle = 2;
+
+        /**
+         * Max time in milliseconds a borrower waits for a connection of an exhausted tenant pool.
+         */
+        private int maxWait = 30000;
+
+        /**
+         * Time in milliseconds after which an idle connection is closed.
+         */
+        private int connectionIdleTimeout = 60000;
+
+        /**
+         * Time in milliseconds after which a tenant pool without any checkout is closed.
+         */
+        private long poolIdleTimeout = 300000;
+
+        /**
+         * Interval in milliseconds between two eviction runs.
+         */
+        private int evictionInterval = 30000;
+
+        /**
+         * Max number of tenant pools that may be open at the same time.
+         */
+        private int maxPools = 200;
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public int getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(int maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getConnectionIdleTimeout() {
+            return connectionIdleTimeout;
+        }
+
+        public void setConnectionIdleTimeout(int connectionIdleTimeout) {
+            this.connectionIdleTimeout = connectionIdleTimeout;
+        }
+
+        public long getPoolIdleTimeout() {
+            return poolIdleTimeout;
+        }
+
+        public void setPoolIdleTimeout(long poolIdleTimeout) {
+            this.poolIdleTimeout = poolIdleTimeout;
+        }
+
+        public int getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(int evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public int getMaxPools() {
+            return maxPools;
+        }
+
+        public void setMaxPools(int maxPools) {
+            this.maxPools = maxPools;
+        }
+    }
+
+    public static class Affinity {
+
+        /**
+         * Max number of returned connections held by the pool layer for their last tenant.
+         */
+        private int maxIdle = 20;
+
+        /**
+         * Time in milliseconds after which a held connection is handed back to the shared pool.
+         */
+        private long idleTimeout = 30000;
+
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    public static class StatementCache {
+
+        /**
+         * Whether the pools keep prepared statements open per physical connection, see TenantStatementCache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Max number of idle prepared statements kept per physical connection.
+         */
+        private int maxStatements = 100;
+
+        /**
+         * Max number of idle prepared statements kept by every connection of every pool together. Each one stays
+         * prepared on the database, whose limit of open prepared statements, max_prepared_stmt_count on MySQL, is
+         * shared by every application instance.
+         */
+        private int maxTotalStatements = 4000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(int maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        public int getMaxTotalStatements() {
+            return maxTotalStatements;
+        }
+
+        public void setMaxTotalStatements(int maxTotalStatements) {
+            this.maxTotalStatements = maxTotalStatements;
+        }
+    }
+
+    public static class Dao {
+
+        /**
+         * JDBC fetch size of the streaming reads, Integer.MIN_VALUE makes MySQL stream the rows one by one.
+         */
+        private int streamFetchSize = Integer.MIN_VALUE;
+
+        /**
+         * Default fetch plan of IGenericDAO.getEntityWithAssociations and getEntitiesWithAssociations.
+         */
+        private FetchPlan fetchPlan = FetchPlan.JOIN;
+
+        /**
+         * Max number of ids bound to a single IN clause of the batch fetch plan.
+         */
+        private int inBatchSize = 500;
+
+        /**
+         * Duration in milliseconds from which a DAO operation is logged as slow, negative disables the log.
+         */
+        private long slowQueryThresholdMs = 500;
+
+        /**
+         * HQL queries registered by name in NamedQueryRegistry at startup.
+         */
+        private final Map<String, String> namedQueries = new LinkedHashMap<>();
+
+        /**
+         * Native SQL queries registered by name in NamedQueryRegistry at startup.
+         */
+        private final Map<String, String> nativeQueries = new LinkedHashMap<>();
+
+        private final Async async = new Async();
+
+        /**
+         * Max number of tenants a TenantFanOut runs at the same time, 0 uses the number of AsyncDaoExecutor workers.
+         */
+        private int fanOutParallelism = 0;
+
+        public int getStreamFetchSize() {
+            return streamFetchSize;
+        }
+
+        public void setStreamFetchSize(int streamFetchSize) {
+            this.streamFetchSize = streamFetchSize;
+        }
+
+        public FetchPlan getFetchPlan() {
+            return fetchPlan;
+        }
+
+        public void setFetchPlan(FetchPlan fetchPlan) {
+            this.fetchPlan = fetchPlan;
+        }
+
+        public int getInBatchSize() {
+            return inBatchSize;
+        }
+
+        public void setInBatchSize(int inBatchSize) {
+            this.inBatchSize = inBatchSize;
+        }
+
+        public long getSlowQueryThresholdMs() {
+            return slowQueryThresholdMs;
+        }
+
+        public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+            this.slowQueryThresholdMs = slowQueryThresholdMs;
+        }
+
+        public Map<String, String> getNamedQueries() {
+            return namedQueries;
+        }
+
+        public Map<String, String> getNativeQueries() {
+            return nativeQueries;
+        }
+
+        public Async getAsync() {
+            return async;
+        }
+
+        public int getFanOutParallelism() {
+            return fanOutParallelism;
+        }
+
+        public void setFanOutParallelism(int fanOutParallelism) {
+            this.fanOutParallelism = fanOutParallelism;
+        }
+    }
+
+    public static class Async {
+
+        /**
+         * Number of workers of AsyncDaoExecutor, 0 sizes it to the max active connections of the shared pool.
+         */
+        private int threads = 0;
+
+        /**
+         * Max number of calls waiting for a worker, further calls are rejected.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Whether the workers are virtual threads, ignored when the JVM does not support them.
+         */
+        private boolean virtualThreads = false;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+}
@@ -16,9 +16,27 @@ public class MultitenantConnectionProviderImpl implements MultiTenantConnectionP
     @Autowired
     DataSource dataSource;
 
+    @Autowired
+    MultitenancyProperties properties;
+
+    @Autowired
+    TenantConnectionPools tenantConnectionPools;
+
+    @Autowired
+    SchemaSwitcher schemaSwitcher;
+
     @Override
     public Connection getAnyConnection() throws SQLException {
-        return dataSource.getConnection();
+        final Connection connection = dataSource.getConnection();
+        if (!isPerTenantPool()) {
+            try {
+                schemaSwitcher.switchTo(connection, Constant.DEFAULT_SCHEMA);
+            } catch (SQLException sqle) {
+                connection.close();
+                throw sqle;
+            }
+        }
+        return connection;
     }
 
     @Override
@@ -28,33 +46,39 @@ public class MultitenantConnectionProviderImpl implements MultiTenantConnectionP
 
     @Override
     public Connection getConnection(String tenantIdentifier) throws SQLException {
-        final Connection connection = getAnyConnection();
-        try{
-            if(tenantIdentifier!= null){
-                connection.createStatement().execute("USE "+tenantIdentifier);
-            }else {
-                connection.createStatement().execute("USE "+ Constant.DEFAULT_SCHEMA);
+        final String schema = tenantIdentifier != null ? tenantIdentifier : Constant.DEFAULT_SCHEMA;
+        if (isPerTenantPool()) {
+            try {
+                return tenantConnectionPools.getConnection(schema);
+            } catch (SQLException sqle) {
+                throw new HibernateException("Exception getting connection of tenant pool: " + tenantIdentifier, sqle);
             }
+        }
+        final Connection connection = dataSource instanceof TenantAffinityDataSource
+                ? ((TenantAffinityDataSource) dataSource).getConnection(schema)
+                : dataSource.getConnection();
+        try{
+            schemaSwitcher.switchTo(connection, schema);
         }catch (SQLException sqle){
+            connection.close();
             throw new HibernateException("Exception setting schema with identifier: "+tenantIdentifier,sqle);
         }
         return connection;
     }
 
+    /**
+     * The schema of a shared pool connection is not reset here, the next checkout switches it only when it asks for
+     * another schema.
+     */
     @Override
     public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
-        try {
-            connection.createStatement().execute( "USE "+Constant.DEFAULT_SCHEMA);
-        }
-        catch ( SQLException e ) {
-            throw new HibernateException(
-                    "Problem setting schema to " + tenantIdentifier,
-                    e
-            );
-        }
         connection.close();
     }
 
+    private boolean isPerTenantPool() {
+        return properties.getConnection().getMode() == MultitenancyProperties.Connection.Mode.PER_TENANT;
+    }
+
     @Override
     public boolean supportsAggressiveRelease() {
         return true;
@@ -0,0 +1,103 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Switches pooled connections of the shared pool to a tenant schema. The schema last set is remembered per physical
+ * connection, so a switch is only sent to the database when the connection is on another schema. Connections are
+ * not switched back to the default schema on release, they keep the schema of their last tenant until the next
+ * checkout asks for another one. Code using the shared DataSource directly must therefore qualify its tables or
+ * switch the schema itself.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=ConnectionPools,name=schemaSwitcher")
+public class SchemaSwitcher {
+
+    /**
+     * Represents the schema last set per physical connection, entries go away with the physical connection.
+     */
+    private final Map<Connection, String> currentSchemas = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final AtomicLong switchesPerformed = new AtomicLong();
+
+    private final AtomicLong switchesSkipped = new AtomicLong();
+
+    private final boolean useSchema;
+
+    @Autowired
+    public SchemaSwitcher(MultitenancyProperties properties) {
+        this.useSchema = properties.getConnection().getSwitchStrategy()
+                == MultitenancyProperties.Connection.SwitchStrategy.SCHEMA;
+    }
+
+    /**
+     * This method is used to make sure the connection is on the given schema.
+     *
+     * @param connection Represents the pooled connection.
+     * @param schema     Represents the schema the connection needs to be on.
+     *
+     * @throws SQLException throws when the schema could not be set.
+     */
+    public void switchTo(Connection connection, String schema) throws SQLException {
+        final Connection physical = physicalConnection(connection);
+        String current = currentSchemas.get(physical);
+        if (current == null) {
+            // the driver knows the catalog the connection was opened with, without asking the server
+            current = useSchema ? connection.getSchema() : connection.getCatalog();
+        }
+        if (schema.equals(current)) {
+            switchesSkipped.incrementAndGet();
+        } else {
+            currentSchemas.remove(physical);
+            if (useSchema) {
+                connection.setSchema(schema);
+            } else {
+                connection.setCatalog(schema);
+            }
+            switchesPerformed.incrementAndGet();
+        }
+        currentSchemas.put(physical, schema);
+    }
+
+    /**
+     * This method is used to get the schema last set on the physical connection behind a pooled connection.
+     *
+     * @param connection Represents the pooled connection.
+     *
+     * @return String Represents the schema or null when it is not known yet.
+     */
+    public String currentSchema(Connection connection) {
+        return currentSchemas.get(physicalConnection(connection));
+    }
+
+    static Connection physicalConnection(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                return connection.unwrap(Connection.class);
+            }
+        } catch (SQLException | AbstractMethodError e) {
+            // pre JDBC 4 drivers cannot be unwrapped
+        }
+        return connection;
+    }
+
+    @ManagedAttribute(description = "Number of schema switches sent to the database")
+    public long getSwitchesPerformed() {
+        return switchesPerformed.get();
+    }
+
+    @ManagedAttribute(description = "Number of schema switches skipped because the connection was on the schema")
+    public long getSwitchesSkipped() {
+        return switchesSkipped.get();
+    }
+}
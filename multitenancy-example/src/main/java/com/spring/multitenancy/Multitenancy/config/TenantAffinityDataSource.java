@@ -0,0 +1,290 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool layer on top of the shared pool which keeps returned connections grouped by the schema they were last on.
+ * A checkout for a tenant first takes an idle connection of the same tenant, so that the schema switch is skipped and
+ * the server side state of the schema stays warm. Only when none is available a connection of another tenant or a new
+ * one of the shared pool is handed out.
+ */
+@ManagedResource(objectName = "multitenancy:type=ConnectionPools,name=tenantAffinityDataSource")
+public class TenantAffinityDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantAffinityDataSource.class);
+
+    private final SchemaSwitcher schemaSwitcher;
+
+    private final int maxIdle;
+
+    private final long idleTimeout;
+
+    private final ConcurrentMap<String, Deque<IdleConnection>> idleConnections = new ConcurrentHashMap<>();
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private final AtomicLong affinityHits = new AtomicLong();
+
+    private final AtomicLong affinityMisses = new AtomicLong();
+
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Represents the constructor of the data source.
+     *
+     * @param targetDataSource Represents the shared pool the connections are taken from.
+     * @param schemaSwitcher   Represents the switcher knowing the schema of every connection.
+     * @param affinity         Represents the settings of the pool layer.
+     */
+    public TenantAffinityDataSource(DataSource targetDataSource, SchemaSwitcher schemaSwitcher,
+                                    MultitenancyProperties.Affinity affinity) {
+        super(targetDataSource);
+        this.schemaSwitcher = schemaSwitcher;
+        this.maxIdle = affinity.getMaxIdle();
+        this.idleTimeout = affinity.getIdleTimeout();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-affinity-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(Constant.DEFAULT_SCHEMA);
+    }
+
+    /**
+     * This method is used to get a connection, preferably one which was last used for the given tenant. The caller
+     * still has to switch the schema, which is skipped by the {@link SchemaSwitcher} on an affinity hit.
+     *
+     * @param tenantIdentifier Represents the tenant schema.
+     *
+     * @return Connection Represents the connection whose close() hands it back to this pool layer.
+     * @throws SQLException throws in case no connection could be taken from the shared pool.
+     */
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        Connection connection = pollIdle(idleConnections.get(tenantIdentifier));
+        if (connection != null) {
+            affinityHits.incrementAndGet();
+        } else {
+            affinityMisses.incrementAndGet();
+            connection = pollAnyIdle();
+            if (connection == null) {
+                connection = getTargetDataSource().getConnection();
+            }
+        }
+        return (Connection) Proxy.newProxyInstance(TenantAffinityDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new AffinityConnectionHandler(connection, tenantIdentifier));
+    }
+
+    /**
+     * Closes the idle connections, stops the evictor and closes the shared pool.
+     */
+    public void close() {
+        evictor.shutdownNow();
+        for (Deque<IdleConnection> deque : idleConnections.values()) {
+            IdleConnection idle;
+            while ((idle = deque.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                closeQuietly(idle.connection);
+            }
+        }
+        if (getTargetDataSource() instanceof DataSourceProxy) {
+            ((DataSourceProxy) getTargetDataSource()).close();
+        }
+    }
+
+    private Connection pollIdle(Deque<IdleConnection> deque) {
+        if (deque == null) {
+            return null;
+        }
+        // most recently returned first, it is the warmest one
+        IdleConnection idle = deque.pollFirst();
+        if (idle == null) {
+            return null;
+        }
+        idleCount.decrementAndGet();
+        return idle.connection;
+    }
+
+    private Connection pollAnyIdle() {
+        for (Deque<IdleConnection> deque : idleConnections.values()) {
+            Connection connection = pollIdle(deque);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    private void release(Connection connection, String tenantIdentifier) {
+        final String schema = schemaSwitcher.currentSchema(connection);
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            closeQuietly(connection);
+            return;
+        }
+        idleConnections.computeIfAbsent(schema != null ? schema : tenantIdentifier,
+                key -> new ConcurrentLinkedDeque<>()).offerFirst(new IdleConnection(connection));
+    }
+
+    /**
+     * Hands the connections idle for longer than the idle timeout back to the shared pool.
+     */
+    void evictIdleConnections() {
+        final long now = System.currentTimeMillis();
+        for (Deque<IdleConnection> deque : idleConnections.values()) {
+            Iterator<IdleConnection> oldestFirst = deque.descendingIterator();
+            while (oldestFirst.hasNext()) {
+                IdleConnection idle = oldestFirst.next();
+                if (now - idle.idleSince < idleTimeout) {
+                    break;
+                }
+                if (deque.removeLastOccurrence(idle)) {
+                    idleCount.decrementAndGet();
+                    closeQuietly(idle.connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands a connection whose transaction could not be ended back to the shared pool marked as discarded, so the
+     * pool closes the physical connection instead of lending it again.
+     */
+    private void discard(Connection connection) {
+        try {
+            connection.unwrap(PooledConnection.class).setDiscarded(true);
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("discard: connection could not be marked as discarded", e);
+        }
+        closeQuietly(connection);
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("closeQuietly: failed to return connection to the shared pool", e);
+        }
+    }
+
+    @ManagedAttribute(description = "Number of checkouts served by a connection last used for the same tenant")
+    public long getAffinityHits() {
+        return affinityHits.get();
+    }
+
+    @ManagedAttribute(description = "Number of checkouts served by a connection of another tenant or a new one")
+    public long getAffinityMisses() {
+        return affinityMisses.get();
+    }
+
+    @ManagedAttribute(description = "Share of checkouts served by a connection last used for the same tenant")
+    public double getAffinityHitRatio() {
+        final long hits = affinityHits.get();
+        final long total = hits + affinityMisses.get();
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    @ManagedAttribute(description = "Number of connections held idle by the pool layer")
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    private static final class IdleConnection {
+
+        private final Connection connection;
+
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Hands the connection back to the pool layer on close instead of returning it to the shared pool.
+     */
+    private final class AffinityConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private final String tenantIdentifier;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private AffinityConnectionHandler(Connection connection, String tenantIdentifier) {
+            this.connection = connection;
+            this.tenantIdentifier = tenantIdentifier;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true) && !connection.isClosed()) {
+                        boolean reset = false;
+                        try {
+                            if (!connection.getAutoCommit()) {
+                                connection.rollback();
+                                connection.setAutoCommit(true);
+                            }
+                            reset = true;
+                        } finally {
+                            if (reset) {
+                                release(connection, tenantIdentifier);
+                            } else {
+                                discard(connection);
+                            }
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TenantAffinityConnection[" + tenantIdentifier + "] " + connection;
+                default:
+                    if (closed.get()) {
+                        throw new SQLException("Connection has already been closed.");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * TaskDecorator of the Spring task executors, ThreadPoolTaskExecutor.setTaskDecorator, running every task with the
+ * tenant of the thread submitting it.
+ */
+public class TenantAwareTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantPropagation.wrapRunnable(runnable);
+    }
+}
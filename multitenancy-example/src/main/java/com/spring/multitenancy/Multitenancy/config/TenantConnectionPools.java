@@ -0,0 +1,272 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds one bounded connection pool per tenant. Pools are created on the first checkout of a tenant, their
+ * connections are bound to the tenant schema once when they are opened and pools without any checkout for
+ * {@link MultitenancyProperties.PerTenant#getPoolIdleTimeout()} are closed by a background evictor.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=ConnectionPools,name=tenantConnectionPools")
+public class TenantConnectionPools {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantConnectionPools.class);
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MultitenancyProperties properties;
+
+    @Autowired
+    TenantRegistry tenantRegistry;
+
+    private final ConcurrentMap<String, TenantPool> pools = new ConcurrentHashMap<>();
+
+    private final Object poolLock = new Object();
+
+    private final AtomicLong createdPools = new AtomicLong();
+
+    private final AtomicLong evictedPools = new AtomicLong();
+
+    private ScheduledExecutorService evictor;
+
+    @PostConstruct
+    public void start() {
+        if (properties.getConnection().getMode() != MultitenancyProperties.Connection.Mode.PER_TENANT) {
+            return;
+        }
+        final long interval = properties.getConnection().getPerTenant().getEvictionInterval();
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdlePools, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (String tenantIdentifier : pools.keySet()) {
+            TenantPool pool = pools.remove(tenantIdentifier);
+            if (pool != null) {
+                pool.dataSource.close();
+            }
+        }
+    }
+
+    /**
+     * This method is used to get a connection bound to the schema of the tenant.
+     *
+     * @param tenantIdentifier Represents the tenant schema.
+     *
+     * @return Connection Represents a connection of the tenant pool.
+     * @throws SQLException throws when the tenant pool limit is reached or no connection could be opened.
+     */
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        TenantPool pool = pools.get(tenantIdentifier);
+        if (pool == null || !pool.enter()) {
+            pool = enterPool(tenantIdentifier);
+        }
+        try {
+            return pool.dataSource.getConnection();
+        } finally {
+            pool.exit();
+        }
+    }
+
+    /**
+     * Creates the pool of the tenant if needed, evicting the least recently used pool at max-pools. Pools are only
+     * created and evicted under the pool lock, so the limit holds for concurrent first requests and a pool the
+     * evictor was closing has been either removed or reopened once the lock is held.
+     *
+     * @return the pool of the tenant, entered
+     */
+    private TenantPool enterPool(String tenantIdentifier) throws SQLException {
+        synchronized (poolLock) {
+            TenantPool pool = pools.get(tenantIdentifier);
+            if (pool == null) {
+                ensureCapacity();
+                pool = createPool(tenantIdentifier);
+                pools.put(tenantIdentifier, pool);
+            }
+            if (!pool.enter()) {
+                throw new IllegalStateException("Connection pool of tenant " + tenantIdentifier + " is closed");
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Closes every tenant pool which has no checked out connection and was not used within the pool idle timeout.
+     */
+    void evictIdlePools() {
+        final long idleTimeout = properties.getConnection().getPerTenant().getPoolIdleTimeout();
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            if (now - entry.getValue().lastAccess >= idleTimeout) {
+                synchronized (poolLock) {
+                    evict(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Called with the pool lock held.
+     */
+    private void ensureCapacity() throws SQLException {
+        final int maxPools = properties.getConnection().getPerTenant().getMaxPools();
+        if (pools.size() < maxPools) {
+            return;
+        }
+        Map.Entry<String, TenantPool> leastRecentlyUsed = null;
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            if (leastRecentlyUsed == null || entry.getValue().lastAccess < leastRecentlyUsed.getValue().lastAccess) {
+                leastRecentlyUsed = entry;
+            }
+        }
+        if (leastRecentlyUsed == null || !evict(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue())) {
+            throw new SQLException("Tenant pool limit of " + maxPools + " reached");
+        }
+    }
+
+    /**
+     * Called with the pool lock held.
+     */
+    private boolean evict(String tenantIdentifier, TenantPool pool) {
+        if (!pool.tryClose()) {
+            return false;
+        }
+        if (pool.dataSource.getActive() > 0) {
+            pool.reopen();
+            return false;
+        }
+        pools.remove(tenantIdentifier, pool);
+        pool.dataSource.close();
+        evictedPools.incrementAndGet();
+        logger.debug("evict: closed idle connection pool of tenant {}", tenantIdentifier);
+        return true;
+    }
+
+    private TenantPool createPool(String tenantIdentifier) {
+        final MultitenancyProperties.PerTenant perTenant = properties.getConnection().getPerTenant();
+        final PoolConfiguration shared = ((org.apache.tomcat.jdbc.pool.DataSource) dataSource).getPoolProperties();
+        PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setName("tenant-" + tenantIdentifier);
+        poolProperties.setUrl(shared.getUrl());
+        poolProperties.setDriverClassName(shared.getDriverClassName());
+        poolProperties.setUsername(shared.getUsername());
+        poolProperties.setPassword(shared.getPassword());
+        poolProperties.setValidationQuery(shared.getValidationQuery());
+        poolProperties.setTestOnBorrow(shared.isTestOnBorrow());
+        poolProperties.setJdbcInterceptors(shared.getJdbcInterceptors());
+        poolProperties.setDefaultCatalog(tenantIdentifier);
+        poolProperties.setInitialSize(0);
+        poolProperties.setMinIdle(0);
+        final TenantSettings settings = tenantRegistry.getSettings(tenantIdentifier);
+        poolProperties.setMaxIdle(settings.getMaxIdle());
+        poolProperties.setMaxActive(settings.getMaxActive());
+        poolProperties.setMaxWait(perTenant.getMaxWait());
+        poolProperties.setMinEvictableIdleTimeMillis(perTenant.getConnectionIdleTimeout());
+        poolProperties.setTimeBetweenEvictionRunsMillis(perTenant.getEvictionInterval());
+        createdPools.incrementAndGet();
+        logger.debug("createPool: opening connection pool of tenant {}", tenantIdentifier);
+        return new TenantPool(new org.apache.tomcat.jdbc.pool.DataSource(poolProperties));
+    }
+
+    @ManagedAttribute(description = "Number of open tenant pools")
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    @ManagedAttribute(description = "Number of tenant pools created since startup")
+    public long getCreatedPools() {
+        return createdPools.get();
+    }
+
+    @ManagedAttribute(description = "Number of idle tenant pools closed since startup")
+    public long getEvictedPools() {
+        return evictedPools.get();
+    }
+
+    @ManagedOperation(description = "Active and idle connections of every open tenant pool")
+    public Map<String, String> getPoolUsage() {
+        Map<String, String> usage = new TreeMap<>();
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            usage.put(entry.getKey(), "active=" + entry.getValue().dataSource.getActive()
+                    + ", idle=" + entry.getValue().dataSource.getIdle());
+        }
+        return usage;
+    }
+
+    /**
+     * Connection pool of a single tenant. Counts the checkouts in progress so that the evictor never closes a pool
+     * a connection is currently taken from.
+     */
+    private static final class TenantPool {
+
+        private static final int CLOSED = -1;
+
+        private final org.apache.tomcat.jdbc.pool.DataSource dataSource;
+
+        private final AtomicInteger checkouts = new AtomicInteger();
+
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private TenantPool(org.apache.tomcat.jdbc.pool.DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean enter() {
+            int current;
+            do {
+                current = checkouts.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!checkouts.compareAndSet(current, current + 1));
+            lastAccess = System.currentTimeMillis();
+            return true;
+        }
+
+        private void exit() {
+            checkouts.decrementAndGet();
+        }
+
+        private boolean tryClose() {
+            return checkouts.compareAndSet(0, CLOSED);
+        }
+
+        private void reopen() {
+            checkouts.set(0);
+        }
+    }
+}
@@ -1,26 +1,87 @@
 package com.spring.multitenancy.Multitenancy.config;
 
 import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 @Component
 public class TenantContextInterceptor extends HandlerInterceptorAdapter {
 
+    /**
+     * Request attribute holding the permit of a request admitted by the TenantRequestLimiter, the async dispatch of a
+     * request is not admitted a second time.
+     */
+    private static final String PERMIT_ATTRIBUTE = TenantContextInterceptor.class.getName() + ".permit";
+
+    @Autowired
+    TenantRegistry tenantRegistry;
+
+    @Autowired
+    TenantRequestLimiter tenantRequestLimiter;
+
+    @Autowired
+    MultitenancyProperties properties;
+
+    /**
+     * Rejects the requests of unknown tenants with a 400 and the requests over the limits of their tenant with a 429,
+     * before any database work. A request without tenant runs against the default schema. The error dispatch of a
+     * rejected or failed request renders the error only, it is neither validated nor admitted again.
+     */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ERROR) {
+            return true;
+        }
         String tenantId = request.getHeader("clientId");
+        if (!StringUtils.isEmpty(tenantId) && properties.getTenant().isValidate() && !tenantRegistry.isKnown(tenantId)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown tenant " + tenantId);
+            return false;
+        }
+        if (request.getAttribute(PERMIT_ATTRIBUTE) == null) {
+            TenantRequestLimiter.Permit permit = tenantRequestLimiter.tryAcquire(tenantId);
+            TenantRequestLimiter.Admission admission = permit.getAdmission();
+            if (admission == TenantRequestLimiter.Admission.RATE_LIMITED) {
+                response.setHeader(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(tenantRequestLimiter.getRetryAfterSeconds(tenantId)));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit of tenant exceeded");
+                return false;
+            }
+            if (admission == TenantRequestLimiter.Admission.BULKHEAD_FULL) {
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many concurrent requests of tenant");
+                return false;
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        }
         TenantContext.setTenant(tenantId);
         return true;
     }
 
+    /**
+     * Called after failed requests as well, unlike postHandle, so a pooled request thread never keeps a tenant.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        TenantContext.clear();
+        TenantRequestLimiter.Permit permit = (TenantRequestLimiter.Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release();
+        }
+    }
+
+    /**
+     * An async handler has handed the request to another thread, postHandle is not called on this one.
+     */
     @Override
-    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         TenantContext.clear();
     }
 }
@@ -0,0 +1,165 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Carries the TenantContext value of the submitting thread onto the thread running a task. The tenant is captured
+ * when a task is wrapped, set on the running thread for the duration of the task and the previous value of that
+ * thread, usually none, is restored afterwards, so a pooled thread never keeps the tenant of its last task.
+ * <p>
+ * Tasks forked from inside a ForkJoinPool task and parallel streams are not covered, their subtasks have to be
+ * wrapped as well. Each kind of task has its own method, so a lambda is never ambiguous between them.
+ */
+public final class TenantPropagation {
+
+    private TenantPropagation() {
+    }
+
+    public static Runnable wrapRunnable(final Runnable task) {
+        final String tenant = TenantContext.getTenant();
+        return () -> {
+            final String previous = TenantContext.getTenant();
+            TenantContext.setTenant(tenant);
+            try {
+                task.run();
+            } finally {
+                TenantContext.setTenant(previous);
+            }
+        };
+    }
+
+    public static <V> Callable<V> wrapCallable(final Callable<V> task) {
+        final String tenant = TenantContext.getTenant();
+        return () -> {
+            final String previous = TenantContext.getTenant();
+            TenantContext.setTenant(tenant);
+            try {
+                return task.call();
+            } finally {
+                TenantContext.setTenant(previous);
+            }
+        };
+    }
+
+    public static <V> Supplier<V> wrapSupplier(final Supplier<V> task) {
+        final String tenant = TenantContext.getTenant();
+        return () -> {
+            final String previous = TenantContext.getTenant();
+            TenantContext.setTenant(tenant);
+            try {
+                return task.get();
+            } finally {
+                TenantContext.setTenant(previous);
+            }
+        };
+    }
+
+    public static <T, V> Function<T, V> wrapFunction(final Function<T, V> task) {
+        final String tenant = TenantContext.getTenant();
+        return value -> {
+            final String previous = TenantContext.getTenant();
+            TenantContext.setTenant(tenant);
+            try {
+                return task.apply(value);
+            } finally {
+                TenantContext.setTenant(previous);
+            }
+        };
+    }
+
+    /**
+     * @return an executor running every task with the tenant of the thread submitting it
+     */
+    public static Executor decorate(final Executor executor) {
+        return task -> executor.execute(wrapRunnable(task));
+    }
+
+    /**
+     * @return a task executor running every task with the tenant of the thread submitting it
+     */
+    public static TaskExecutor decorateTaskExecutor(final TaskExecutor executor) {
+        return task -> executor.execute(wrapRunnable(task));
+    }
+
+    /**
+     * @return an executor service, a ForkJoinPool as well, running every task with the tenant of the thread
+     *         submitting it
+     */
+    public static ExecutorService decorateExecutorService(final ExecutorService executor) {
+        return new TenantAwareExecutorService(executor);
+    }
+
+    /**
+     * @return an executor running every task with the tenant of the calling thread, whichever thread submits it. Meant
+     *         for the async stages of a CompletableFuture chain, whose tasks are submitted by the thread completing
+     *         the previous stage.
+     */
+    public static Executor bindCurrentTenant(final Executor executor) {
+        final String tenant = TenantContext.getTenant();
+        return task -> executor.execute(() -> {
+            final String previous = TenantContext.getTenant();
+            TenantContext.setTenant(tenant);
+            try {
+                task.run();
+            } finally {
+                TenantContext.setTenant(previous);
+            }
+        });
+    }
+
+    /**
+     * CompletableFuture.supplyAsync running the supplier with the tenant of the calling thread. Async stages chained
+     * to the future run on the executor they are given, which has to be bound as well, see bindCurrentTenant.
+     */
+    public static <V> CompletableFuture<V> supplyAsync(final Supplier<V> supplier, final Executor executor) {
+        return CompletableFuture.supplyAsync(supplier, bindCurrentTenant(executor));
+    }
+
+    /**
+     * CompletableFuture.supplyAsync on the common ForkJoinPool with the tenant of the calling thread.
+     */
+    public static <V> CompletableFuture<V> supplyAsync(final Supplier<V> supplier) {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * CompletableFuture.runAsync running the task with the tenant of the calling thread.
+     */
+    public static CompletableFuture<Void> runAsync(final Runnable task, final Executor executor) {
+        return CompletableFuture.runAsync(task, bindCurrentTenant(executor));
+    }
+
+    /**
+     * CompletableFuture.runAsync on the common ForkJoinPool with the tenant of the calling thread.
+     */
+    public static CompletableFuture<Void> runAsync(final Runnable task) {
+        return runAsync(task, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return a ForkJoinTask running the task with the tenant of the calling thread
+     */
+    public static <V> ForkJoinTask<V> adapt(final Callable<V> task) {
+        return ForkJoinTask.adapt(wrapCallable(task));
+    }
+
+    static <V> List<Callable<V>> wrapAll(final Collection<? extends Callable<V>> tasks) {
+        final List<Callable<V>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<V> task : tasks) {
+            wrapped.add(wrapCallable(task));
+        }
+        return wrapped;
+    }
+}
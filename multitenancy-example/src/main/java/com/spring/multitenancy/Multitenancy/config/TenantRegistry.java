@@ -0,0 +1,219 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In memory registry of the tenants, the CLIENT rows of the default schema, with their settings. The tenants are
+ * loaded at startup and reloaded every refresh interval: only the added and removed tenants change the registry, the
+ * settings of the others are kept. Lookups read an immutable snapshot, so TenantContextInterceptor rejects an
+ * unknown tenant without any database work.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Tenants,name=tenantRegistry")
+public class TenantRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantRegistry.class);
+
+    private static final String TENANTS_QUERY = "SELECT CLIENT_ID FROM CLIENT";
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    SchemaSwitcher schemaSwitcher;
+
+    @Autowired
+    MultitenancyProperties properties;
+
+    private volatile Map<String, TenantSettings> tenants = Collections.emptyMap();
+
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    public void start() throws SQLException {
+        refresh();
+        final long interval = properties.getTenant().getRefreshInterval();
+        if (interval > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tenant-registry-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * This method is used to check whether a tenant exists.
+     *
+     * @param tenant Represents the tenant identifier.
+     *
+     * @return boolean true when the tenant is registered.
+     */
+    public boolean isKnown(String tenant) {
+        final boolean known = tenant != null && tenants.containsKey(tenant);
+        if (!known) {
+            rejected.incrementAndGet();
+        }
+        return known;
+    }
+
+    /**
+     * This method is used to get the settings of a tenant.
+     *
+     * @param tenant Represents the tenant identifier, null for the default schema.
+     *
+     * @return TenantSettings Represents the settings of the tenant, the defaults when it is not registered.
+     */
+    public TenantSettings getSettings(String tenant) {
+        final TenantSettings settings = tenants.get(tenant == null ? Constant.DEFAULT_SCHEMA : tenant);
+        return settings != null ? settings : settingsOf(tenant);
+    }
+
+    /**
+     * @return the identifiers of the registered tenants, the default schema included
+     */
+    public Set<String> getTenants() {
+        return tenants.keySet();
+    }
+
+    /**
+     * This method is used to reload the tenants from the default schema, keeping the settings of the tenants already
+     * registered.
+     *
+     * @throws SQLException throws when the tenants could not be read, the registry is left unchanged.
+     */
+    @ManagedOperation(description = "Reloads the tenants from the default schema")
+    public void refresh() throws SQLException {
+        final Set<String> loaded = loadTenants();
+        loaded.add(Constant.DEFAULT_SCHEMA);
+        final Map<String, TenantSettings> current = tenants;
+        final Map<String, TenantSettings> next = new HashMap<>(loaded.size() * 4 / 3 + 1);
+        int added = 0;
+        for (String tenant : loaded) {
+            TenantSettings settings = current.get(tenant);
+            if (settings == null) {
+                settings = settingsOf(tenant);
+                added++;
+            }
+            next.put(tenant, settings);
+        }
+        final int removed = current.size() + added - next.size();
+        tenants = Collections.unmodifiableMap(next);
+        refreshes.incrementAndGet();
+        if (added > 0 || removed > 0) {
+            logger.info("Tenant registry refreshed: {} tenants, {} added, {} removed", next.size(), added, removed);
+        }
+    }
+
+    /**
+     * This method is used to compute the settings of every tenant again, after the overrides changed.
+     */
+    @ManagedOperation(description = "Computes the settings of every tenant again from the properties")
+    public void reloadSettings() {
+        final Map<String, TenantSettings> next = new HashMap<>(tenants.size() * 4 / 3 + 1);
+        for (String tenant : tenants.keySet()) {
+            next.put(tenant, settingsOf(tenant));
+        }
+        tenants = Collections.unmodifiableMap(next);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("refresh: tenants could not be reloaded, keeping the {} known tenants", tenants.size(), e);
+        }
+    }
+
+    private Set<String> loadTenants() throws SQLException {
+        final Set<String> loaded = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            schemaSwitcher.switchTo(connection, Constant.DEFAULT_SCHEMA);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(TENANTS_QUERY)) {
+                while (resultSet.next()) {
+                    loaded.add(resultSet.getString(1));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private TenantSettings settingsOf(String tenant) {
+        final MultitenancyProperties.PerTenant perTenant = properties.getConnection().getPerTenant();
+        final MultitenancyProperties.Tenant defaults = properties.getTenant();
+        MultitenancyProperties.TenantOverride override = defaults.getOverrides().get(tenant);
+        if (override == null) {
+            override = new MultitenancyProperties.TenantOverride();
+        }
+        return new TenantSettings(tenant,
+                override.getMaxActive() != null ? override.getMaxActive() : perTenant.getMaxActive(),
+                override.getMaxIdle() != null ? override.getMaxIdle() : perTenant.getMaxIdle(),
+                override.getQueryCache() != null ? override.getQueryCache() : true,
+                override.getRateLimit() != null ? override.getRateLimit() : defaults.getRateLimit(),
+                override.getBurst() != null ? override.getBurst() : defaults.getBurst(),
+                override.getMaxConcurrentRequests() != null ? override.getMaxConcurrentRequests()
+                        : defaults.getMaxConcurrentRequests());
+    }
+
+    @ManagedAttribute(description = "Number of registered tenants")
+    public int getTenantCount() {
+        return tenants.size();
+    }
+
+    @ManagedAttribute(description = "Number of reloads since startup")
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    @ManagedAttribute(description = "Number of lookups of unknown tenants")
+    public long getRejectedLookups() {
+        return rejected.get();
+    }
+
+    @ManagedOperation(description = "Settings of the tenants with overrides")
+    public Map<String, String> getOverriddenSettings() {
+        Map<String, String> overridden = new TreeMap<>();
+        for (String tenant : properties.getTenant().getOverrides().keySet()) {
+            overridden.put(tenant, getSettings(tenant).toString());
+        }
+        return overridden;
+    }
+}
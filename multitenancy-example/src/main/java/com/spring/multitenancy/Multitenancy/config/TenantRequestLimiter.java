@@ -0,0 +1,238 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per tenant rate limit and bulkhead of the request path, so one tenant cannot take every request thread and pooled
+ * connection. The rate limit is a token bucket in its GCRA form: a single AtomicLong holding the theoretical arrival
+ * time of the next request, moved forward with a compare and set per accepted request. The bulkhead is a semaphore
+ * whose tryAcquire never waits. Neither takes a lock, and every tenant has its own, so tenants do not contend.
+ * An accepted request holds a Permit which releases the very semaphore it was taken from, so a reset while
+ * requests are in progress never adds permits to the recreated bulkheads.
+ * <p>
+ * Only the tenants of the TenantRegistry have limits of their own, any other tenant identifier shares the limits of
+ * the default schema, so requests with made up tenants cannot grow the limits without bound. The limits of the
+ * tenants a registry refresh removed are dropped.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Tenants,name=tenantRequestLimiter")
+public class TenantRequestLimiter {
+
+    /**
+     * Represents the outcome of a request admission.
+     */
+    public enum Admission {
+        ACCEPTED,
+        /**
+         * The tenant sent more requests than its rate limit and burst allow.
+         */
+        RATE_LIMITED,
+        /**
+         * The tenant already has its max number of requests in progress.
+         */
+        BULKHEAD_FULL
+    }
+
+    private final ConcurrentMap<String, TenantLimits> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    TenantRegistry tenantRegistry;
+
+    /**
+     * Represents the registry refresh the limits were last pruned after.
+     */
+    private volatile long prunedRefreshes;
+
+    /**
+     * This method is used to admit a request of a tenant, the permit of an accepted request has to be released once
+     * the request completed.
+     *
+     * @param tenant Represents the tenant identifier, null for the default schema.
+     *
+     * @return Permit Represents whether the request may proceed.
+     */
+    public Permit tryAcquire(String tenant) {
+        final TenantLimits tenantLimits = limitsOf(tenant);
+        if (!tenantLimits.tryAcquireRate(System.nanoTime())) {
+            tenantLimits.rateLimited.increment();
+            return Permit.REJECTED_RATE_LIMITED;
+        }
+        if (tenantLimits.bulkhead != null && !tenantLimits.bulkhead.tryAcquire()) {
+            tenantLimits.bulkheadFull.increment();
+            return Permit.REJECTED_BULKHEAD_FULL;
+        }
+        tenantLimits.accepted.increment();
+        return new Permit(Admission.ACCEPTED, tenantLimits.bulkhead);
+    }
+
+    /**
+     * @return the number of seconds after which a rate limited tenant may send its next request
+     */
+    public long getRetryAfterSeconds(String tenant) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(limitsOf(tenant).nanosUntilNextPermit(System.nanoTime())
+                + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Drops the limits of every tenant, they are created again from the current TenantSettings. The requests in
+     * progress release their permits to the dropped bulkheads.
+     */
+    @ManagedOperation(description = "Recreates the limits of every tenant from its current settings")
+    public void reset() {
+        limits.clear();
+    }
+
+    @ManagedAttribute(description = "Number of requests rejected by the rate limits")
+    public long getRateLimitedCount() {
+        return limits.values().stream().mapToLong(tenantLimits -> tenantLimits.rateLimited.sum()).sum();
+    }
+
+    @ManagedAttribute(description = "Number of requests rejected by the bulkheads")
+    public long getBulkheadFullCount() {
+        return limits.values().stream().mapToLong(tenantLimits -> tenantLimits.bulkheadFull.sum()).sum();
+    }
+
+    @ManagedOperation(description = "Accepted, rejected and in progress requests of every tenant")
+    public Map<String, String> getTenantStatistics() {
+        Map<String, String> statistics = new TreeMap<>();
+        limits.forEach((tenant, tenantLimits) -> statistics.put(tenant, "accepted=" + tenantLimits.accepted.sum()
+                + ", rateLimited=" + tenantLimits.rateLimited.sum()
+                + ", bulkheadFull=" + tenantLimits.bulkheadFull.sum()
+                + (tenantLimits.bulkhead != null ? ", inProgress="
+                + (tenantLimits.maxConcurrentRequests - tenantLimits.bulkhead.availablePermits()) : "")));
+        return statistics;
+    }
+
+    private TenantLimits limitsOf(String tenant) {
+        pruneRemovedTenants();
+        final String key = tenant != null && tenantRegistry.getTenants().contains(tenant) ? tenant
+                : Constant.DEFAULT_SCHEMA;
+        final TenantLimits tenantLimits = limits.get(key);
+        return tenantLimits != null ? tenantLimits
+                : limits.computeIfAbsent(key,
+                        k -> new TenantLimits(tenantRegistry.getSettings(k), System.nanoTime()));
+    }
+
+    /**
+     * Drops the limits of the tenants removed from the registry, once per registry refresh.
+     */
+    private void pruneRemovedTenants() {
+        final long refreshes = tenantRegistry.getRefreshes();
+        if (refreshes != prunedRefreshes) {
+            prunedRefreshes = refreshes;
+            limits.keySet().retainAll(tenantRegistry.getTenants());
+        }
+    }
+
+    /**
+     * Represents the admission of a request, holding the bulkhead permit of an accepted one.
+     */
+    public static final class Permit {
+
+        private static final Permit REJECTED_RATE_LIMITED = new Permit(Admission.RATE_LIMITED, null);
+
+        private static final Permit REJECTED_BULKHEAD_FULL = new Permit(Admission.BULKHEAD_FULL, null);
+
+        private final Admission admission;
+
+        private final Semaphore bulkhead;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Admission admission, Semaphore bulkhead) {
+            this.admission = admission;
+            this.bulkhead = bulkhead;
+        }
+
+        public Admission getAdmission() {
+            return admission;
+        }
+
+        /**
+         * Hands the bulkhead permit back to the semaphore it was taken from, only once however often it is called.
+         */
+        public void release() {
+            if (bulkhead != null && released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    static final class TenantLimits {
+
+        /**
+         * Time in nanoseconds between two requests at the sustained rate, 0 for no rate limit.
+         */
+        private final long emissionInterval;
+
+        /**
+         * How far ahead of now the theoretical arrival time may run, the burst in nanoseconds.
+         */
+        private final long tolerance;
+
+        /**
+         * Theoretical arrival time of the next request at the sustained rate, in System.nanoTime.
+         */
+        private final AtomicLong theoreticalArrival;
+
+        private final Semaphore bulkhead;
+
+        private final int maxConcurrentRequests;
+
+        private final LongAdder accepted = new LongAdder();
+
+        private final LongAdder rateLimited = new LongAdder();
+
+        private final LongAdder bulkheadFull = new LongAdder();
+
+        TenantLimits(TenantSettings settings, long now) {
+            this.emissionInterval = settings.getRateLimit() > 0
+                    ? (long) (TimeUnit.SECONDS.toNanos(1) / settings.getRateLimit()) : 0;
+            this.tolerance = emissionInterval * Math.max(1, settings.getBurst());
+            this.theoreticalArrival = new AtomicLong(now);
+            this.maxConcurrentRequests = settings.getMaxConcurrentRequests();
+            this.bulkhead = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests) : null;
+        }
+
+        /**
+         * @param now Represents the current System.nanoTime.
+         */
+        boolean tryAcquireRate(long now) {
+            if (emissionInterval == 0) {
+                return true;
+            }
+            while (true) {
+                final long arrival = theoreticalArrival.get();
+                final long next = (arrival - now > 0 ? arrival : now) + emissionInterval;
+                if (next - now > tolerance) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        }
+
+        long nanosUntilNextPermit(long now) {
+            if (emissionInterval == 0) {
+                return 0;
+            }
+            return Math.max(0, theoreticalArrival.get() + emissionInterval - tolerance - now);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+/**
+ * Represents the settings of one tenant, the multitenancy.tenant.overrides of the tenant on top of the defaults.
+ */
+public class TenantSettings {
+
+    private final String tenant;
+
+    private final int maxActive;
+
+    private final int maxIdle;
+
+    private final boolean queryCacheEnabled;
+
+    private final double rateLimit;
+
+    private final int burst;
+
+    private final int maxConcurrentRequests;
+
+    TenantSettings(String tenant, int maxActive, int maxIdle, boolean queryCacheEnabled, double rateLimit, int burst,
+                   int maxConcurrentRequests) {
+        this.tenant = tenant;
+        this.maxActive = maxActive;
+        this.maxIdle = maxIdle;
+        this.queryCacheEnabled = queryCacheEnabled;
+        this.rateLimit = rateLimit;
+        this.burst = burst;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * @return the max number of connections of the tenant pool in PER_TENANT mode
+     */
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    /**
+     * @return the max number of idle connections of the tenant pool in PER_TENANT mode
+     */
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * @return whether the cached criteria and queries of the tenant go through the query cache
+     */
+    public boolean isQueryCacheEnabled() {
+        return queryCacheEnabled;
+    }
+
+    /**
+     * @return the sustained number of requests per second of the tenant, 0 for no limit
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * @return the number of requests the tenant may send at once above its rate limit
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return the max number of requests of the tenant in progress at the same time, 0 for no limit
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "maxActive=" + maxActive + ", maxIdle=" + maxIdle + ", queryCacheEnabled=" + queryCacheEnabled
+                + ", rateLimit=" + rateLimit + ", burst=" + burst + ", maxConcurrentRequests=" + maxConcurrentRequests;
+    }
+}
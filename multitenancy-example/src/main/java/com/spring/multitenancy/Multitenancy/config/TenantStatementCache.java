@@ -0,0 +1,356 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.JdbcInterceptor;
+import org.apache.tomcat.jdbc.pool.PoolProperties.InterceptorProperty;
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool interceptor which keeps the prepared statements of a physical connection open after they are closed, so the
+ * next session preparing the same SQL on the same connection reuses the server side statement instead of parsing and
+ * preparing it again. Statements are held in a bounded LRU per physical connection keyed by schema and SQL text: a
+ * server side statement keeps referring to the tables of the schema it was prepared on, so the schema last set through
+ * setCatalog or setSchema is part of the key.
+ * <p>
+ * Every cached statement stays prepared on the server, and the number of connections grows with the tenant pools, so
+ * the idle statements of all the connections of the JVM are also bounded by a total: once it is reached a connection
+ * makes room by closing its own least recently used statement, or does not keep the statement at all. With
+ * useServerPrepStmts MySQL fails every prepare, server wide, once max_prepared_stmt_count (16382 by default) statements
+ * are open, so the total of every application instance, plus the statements in use, must stay below that setting.
+ * <p>
+ * Configured on the shared pool and the tenant pools as {@code TenantStatementCache(max=100,total=4000)}, see
+ * {@link #interceptorDefinition(int, int)}.
+ */
+public class TenantStatementCache extends JdbcInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantStatementCache.class);
+
+    private static final String CACHE_ATTRIBUTE = TenantStatementCache.class.getName() + ".cache";
+
+    private static final String CATALOG_ATTRIBUTE = TenantStatementCache.class.getName() + ".catalog";
+
+    private static final String SCHEMA_ATTRIBUTE = TenantStatementCache.class.getName() + ".schema";
+
+    private static final AtomicLong hits = new AtomicLong();
+
+    private static final AtomicLong misses = new AtomicLong();
+
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private static final AtomicInteger cachedStatements = new AtomicInteger();
+
+    private int maxStatements = 100;
+
+    private int maxTotalStatements = 4000;
+
+    private PooledConnection pooledConnection;
+
+    /**
+     * @return the jdbcInterceptors value installing the cache with the given number of statements per connection and
+     *         of every connection together
+     */
+    public static String interceptorDefinition(int maxStatements, int maxTotalStatements) {
+        return TenantStatementCache.class.getName() + "(max=" + maxStatements + ",total=" + maxTotalStatements + ")";
+    }
+
+    @Override
+    public void setProperties(Map<String, InterceptorProperty> properties) {
+        super.setProperties(properties);
+        final InterceptorProperty max = properties.get("max");
+        if (max != null) {
+            maxStatements = max.getValueAsInt(maxStatements);
+        }
+        final InterceptorProperty total = properties.get("total");
+        if (total != null) {
+            maxTotalStatements = total.getValueAsInt(maxTotalStatements);
+        }
+    }
+
+    @Override
+    public void reset(ConnectionPool parent, PooledConnection con) {
+        this.pooledConnection = con;
+    }
+
+    @Override
+    public void disconnected(ConnectionPool parent, PooledConnection con, boolean finalizing) {
+        final StatementLru statements = (StatementLru) con.getAttributes().remove(CACHE_ATTRIBUTE);
+        if (statements != null) {
+            statements.closeAll();
+        }
+        super.disconnected(parent, con, finalizing);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final String name = method.getName();
+        if ("prepareStatement".equals(name) && isCacheable(args)) {
+            return prepareStatement(proxy, method, args);
+        }
+        final Object result = super.invoke(proxy, method, args);
+        if ("setCatalog".equals(name)) {
+            pooledConnection.getAttributes().put(CATALOG_ATTRIBUTE, args[0]);
+        } else if ("setSchema".equals(name)) {
+            pooledConnection.getAttributes().put(SCHEMA_ATTRIBUTE, args[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Only the plain forms are cached, prepareStatement(sql) and prepareStatement(sql, resultSetType, concurrency).
+     */
+    private static boolean isCacheable(Object[] args) {
+        return args != null && args[0] instanceof String && (args.length == 1 || args.length == 3);
+    }
+
+    private Object prepareStatement(Object connectionProxy, Method method, Object[] args) throws Throwable {
+        final Map<Object, Object> attributes = pooledConnection.getAttributes();
+        final StatementKey key = new StatementKey((String) attributes.get(CATALOG_ATTRIBUTE),
+                (String) attributes.get(SCHEMA_ATTRIBUTE), (String) args[0],
+                args.length == 3 ? (Integer) args[1] : ResultSet.TYPE_FORWARD_ONLY,
+                args.length == 3 ? (Integer) args[2] : ResultSet.CONCUR_READ_ONLY);
+        StatementLru statements = (StatementLru) attributes.get(CACHE_ATTRIBUTE);
+        if (statements == null) {
+            statements = new StatementLru(maxStatements, maxTotalStatements);
+            attributes.put(CACHE_ATTRIBUTE, statements);
+        }
+        PreparedStatement statement = statements.checkout(key);
+        if (statement != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            statement = (PreparedStatement) super.invoke(connectionProxy, method, args);
+        }
+        return Proxy.newProxyInstance(TenantStatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new CachedStatementHandler(statement, key, statements, connectionProxy));
+    }
+
+    static long getHits() {
+        return hits.get();
+    }
+
+    static long getMisses() {
+        return misses.get();
+    }
+
+    static long getEvictions() {
+        return evictions.get();
+    }
+
+    static int getCachedStatements() {
+        return cachedStatements.get();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("closeQuietly: failed to close cached statement", e);
+        }
+    }
+
+    private static final class StatementKey {
+
+        private final String catalog;
+
+        private final String schema;
+
+        private final String sql;
+
+        private final int resultSetType;
+
+        private final int resultSetConcurrency;
+
+        private StatementKey(String catalog, String schema, String sql, int resultSetType, int resultSetConcurrency) {
+            this.catalog = catalog;
+            this.schema = schema;
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey that = (StatementKey) o;
+            return resultSetType == that.resultSetType
+                    && resultSetConcurrency == that.resultSetConcurrency
+                    && sql.equals(that.sql)
+                    && Objects.equals(catalog, that.catalog)
+                    && Objects.equals(schema, that.schema);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(catalog, schema, sql, resultSetType, resultSetConcurrency);
+        }
+    }
+
+    /**
+     * Idle statements of one physical connection, least recently returned first. A statement in use is not in the
+     * LRU, so two sessions preparing the same SQL never share a statement. Every idle statement is counted in
+     * cachedStatements.
+     */
+    private static final class StatementLru {
+
+        private final int maxStatements;
+
+        private final int maxTotalStatements;
+
+        private final LinkedHashMap<StatementKey, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+        private StatementLru(int maxStatements, int maxTotalStatements) {
+            this.maxStatements = maxStatements;
+            this.maxTotalStatements = maxTotalStatements;
+        }
+
+        synchronized PreparedStatement checkout(StatementKey key) {
+            final PreparedStatement statement = idle.remove(key);
+            if (statement != null) {
+                cachedStatements.decrementAndGet();
+            }
+            return statement;
+        }
+
+        void checkin(StatementKey key, PreparedStatement statement) {
+            final List<PreparedStatement> toClose = new ArrayList<>(1);
+            synchronized (this) {
+                if (idle.containsKey(key)) {
+                    toClose.add(statement);
+                } else {
+                    // over the total, the connection gives up its least recently used statement, which is the
+                    // returned one when it has no other
+                    boolean overTotal = cachedStatements.incrementAndGet() > maxTotalStatements;
+                    idle.put(key, statement);
+                    final Iterator<PreparedStatement> eldestFirst = idle.values().iterator();
+                    while (idle.size() > maxStatements || overTotal) {
+                        overTotal = false;
+                        toClose.add(eldestFirst.next());
+                        eldestFirst.remove();
+                        cachedStatements.decrementAndGet();
+                        evictions.incrementAndGet();
+                    }
+                }
+            }
+            toClose.forEach(TenantStatementCache::closeQuietly);
+        }
+
+        void closeAll() {
+            final List<PreparedStatement> toClose;
+            synchronized (this) {
+                toClose = new ArrayList<>(idle.values());
+                idle.clear();
+                cachedStatements.addAndGet(-toClose.size());
+            }
+            toClose.forEach(TenantStatementCache::closeQuietly);
+        }
+    }
+
+    /**
+     * Hands the statement back to the LRU on close, with its parameters and limits reset.
+     */
+    private static final class CachedStatementHandler implements InvocationHandler {
+
+        private final PreparedStatement statement;
+
+        private final StatementKey key;
+
+        private final StatementLru statements;
+
+        private final Object connectionProxy;
+
+        private final int initialFetchSize;
+
+        private boolean closed;
+
+        private CachedStatementHandler(PreparedStatement statement, StatementKey key, StatementLru statements,
+                                       Object connectionProxy) throws SQLException {
+            this.statement = statement;
+            this.key = key;
+            this.statements = statements;
+            this.connectionProxy = connectionProxy;
+            this.initialFetchSize = statement.getFetchSize();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TenantStatementCache[" + key.sql + "] " + statement;
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement has already been closed.");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+
+        private void release() {
+            try {
+                if (statement.isClosed()) {
+                    return;
+                }
+                // a streaming statement may still hold its connection, it is not worth keeping
+                if (statement.getFetchSize() != initialFetchSize) {
+                    statement.close();
+                    return;
+                }
+                final ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                statement.setMaxRows(0);
+                statement.setQueryTimeout(0);
+            } catch (SQLException e) {
+                logger.debug("release: statement could not be reset, closing it", e);
+                closeQuietly(statement);
+                return;
+            }
+            statements.checkin(key, statement);
+        }
+    }
+}
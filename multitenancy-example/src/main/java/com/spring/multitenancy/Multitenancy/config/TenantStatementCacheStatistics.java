@@ -0,0 +1,40 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the counters of the TenantStatementCache interceptors of every pool.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=ConnectionPools,name=tenantStatementCache")
+public class TenantStatementCacheStatistics {
+
+    @ManagedAttribute(description = "Number of prepared statements served from the cache")
+    public long getHits() {
+        return TenantStatementCache.getHits();
+    }
+
+    @ManagedAttribute(description = "Number of statements prepared on the database")
+    public long getMisses() {
+        return TenantStatementCache.getMisses();
+    }
+
+    @ManagedAttribute(description = "Share of prepared statements served from the cache")
+    public double getHitRatio() {
+        final long hits = TenantStatementCache.getHits();
+        final long total = hits + TenantStatementCache.getMisses();
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    @ManagedAttribute(description = "Number of idle statements closed to keep the cache of a connection and the total bounded")
+    public long getEvictions() {
+        return TenantStatementCache.getEvictions();
+    }
+
+    @ManagedAttribute(description = "Number of idle statements kept by every connection, each one prepared on the database")
+    public int getCachedStatements() {
+        return TenantStatementCache.getCachedStatements();
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 public class MultitenancyController {
 
@@ -16,4 +18,12 @@ public class MultitenancyController {
     public ClientDTO schema() {
         return multitenancyService.getClientInfo();
     }
+
+    /**
+     * Same as /schema without holding the request thread while the DAO call waits on the database.
+     */
+    @GetMapping("/schema/async")
+    public CompletableFuture<ClientDTO> schemaAsync() {
+        return multitenancyService.getClientInfoAsync();
+    }
 }
@@ -0,0 +1,189 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.config.TenantPropagation;
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor the AsyncGenericDAO facades run their DAO calls on, so a request thread does not wait on JDBC.
+ * Only as many workers as the shared pool has connections run at the same time, more would only wait for a
+ * connection, and at most queue-capacity calls wait for a worker: once the queue is full a call fails at once with
+ * a TOO_MANY_REQUESTS error instead of piling up behind a saturated database.
+ * <p>
+ * Every call runs in its own transaction for the tenant of the submitting thread.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Dao,name=asyncDaoExecutor")
+public class AsyncDaoExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncDaoExecutor.class);
+
+    private static final int DEFAULT_THREADS = 10;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    MultitenancyProperties properties;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private ThreadPoolExecutor executor;
+
+    private TransactionTemplate readWriteTemplate;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    public void start() {
+        final MultitenancyProperties.Async async = properties.getDao().getAsync();
+        final int threads = async.getThreads() > 0 ? async.getThreads() : poolMaxActive(dataSource);
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(async.getQueueCapacity()), threadFactory(async.isVirtualThreads()),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        readWriteTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+        logger.info("Async DAO executor started with {} workers and a queue of {}", threads,
+                async.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This method is used to run a DAO call on a worker, in a transaction for the tenant of the calling thread.
+     *
+     * @param work     Represents the DAO call.
+     * @param readOnly Represents whether the transaction is read only.
+     *
+     * @return CompletableFuture Represents the result of the call, failed with a TOO_MANY_REQUESTS
+     *         ApplicationException when the queue is full.
+     */
+    public <V> CompletableFuture<V> submit(final Supplier<V> work, final boolean readOnly) {
+        final TransactionTemplate template = readOnly ? readOnlyTemplate : readWriteTemplate;
+        return submitWithoutTransaction(() -> template.execute(status -> work.get()));
+    }
+
+    /**
+     * This method is used to run a DAO call which manages its own transactions, such as the bulk writes, on a
+     * worker for the tenant of the calling thread.
+     *
+     * @param work Represents the DAO call.
+     *
+     * @return CompletableFuture Represents the result of the call, failed with a TOO_MANY_REQUESTS
+     *         ApplicationException when the queue is full.
+     */
+    public <V> CompletableFuture<V> submitWithoutTransaction(final Supplier<V> work) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        try {
+            executor.execute(TenantPropagation.wrapRunnable(() -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                try {
+                    future.complete(work.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new ApplicationException("Async DAO executor is saturated, "
+                    + executor.getQueue().size() + " calls are waiting", ErrorCode.TOO_MANY_REQUESTS, e));
+        }
+        return future;
+    }
+
+    @ManagedAttribute(description = "Number of workers")
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @ManagedAttribute(description = "Number of workers running a call")
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "Number of calls waiting for a worker")
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @ManagedAttribute(description = "Number of calls completed")
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @ManagedAttribute(description = "Number of calls rejected because the queue was full")
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the max number of connections of the shared pool, the workers beyond it would only wait for one
+     */
+    private static int poolMaxActive(DataSource dataSource) {
+        while (dataSource instanceof DelegatingDataSource) {
+            dataSource = ((DelegatingDataSource) dataSource).getTargetDataSource();
+        }
+        return dataSource instanceof PoolConfiguration ? ((PoolConfiguration) dataSource).getMaxActive()
+                : DEFAULT_THREADS;
+    }
+
+    /**
+     * Virtual threads are created through reflection since the application is compiled for Java 8, platform daemon
+     * threads are used when the JVM does not support them.
+     */
+    private static ThreadFactory threadFactory(boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "async-dao-", 0L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads are not supported by this JVM, using platform threads");
+            }
+        }
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "async-dao-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
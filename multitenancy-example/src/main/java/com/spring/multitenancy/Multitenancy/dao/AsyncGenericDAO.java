@@ -0,0 +1,246 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import org.hibernate.Criteria;
+import org.hibernate.criterion.Criterion;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Non blocking facade over an IGenericDAO: every call runs on the AsyncDaoExecutor, in a transaction of its own
+ * for the tenant of the calling thread, and returns at once. Criteria and Query objects are bound to the session of
+ * the worker, so criteria are passed as a function building them from the DAO and queries as strings with their
+ * parameters.
+ * <p>
+ * A call fails with a TOO_MANY_REQUESTS ApplicationException when the executor queue is full, other failures are
+ * the ApplicationException of the DAO.
+ *
+ * @param <E>  Represents the entity class of the DAO.
+ * @param <PK> Represents the type of the primary key of the entity.
+ */
+@SuppressWarnings({ "rawtypes" })
+public class AsyncGenericDAO<E, PK extends Serializable> {
+
+    private final IGenericDAO<E, PK> dao;
+
+    private final AsyncDaoExecutor executor;
+
+    public AsyncGenericDAO(final IGenericDAO<E, PK> dao, final AsyncDaoExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    /**
+     * @see IGenericDAO#get(Serializable)
+     */
+    public CompletableFuture<E> get(final PK id) {
+        return executor.submit(() -> dao.get(id), true);
+    }
+
+    /**
+     * @see IGenericDAO#getObject(Class, Serializable)
+     */
+    public <V> CompletableFuture<V> getObject(final Class entityClass, final PK id) {
+        return executor.submit(() -> dao.<V>getObject(entityClass, id), true);
+    }
+
+    /**
+     * @see IGenericDAO#getEntitiesWithAssociations(Class, List, String...)
+     */
+    public <V> CompletableFuture<List<V>> getEntitiesWithAssociations(final Class entityClass, final List<PK> entityIds,
+                                                                      final String... entityAssociations) {
+        return executor.submit(() -> dao.<V>getEntitiesWithAssociations(entityClass, entityIds, entityAssociations),
+                true);
+    }
+
+    /**
+     * This method is used to execute a criteria built on the worker.
+     *
+     * @param criteria Represents the function building the criteria from the DAO.
+     *
+     * @return CompletableFuture Represents the result returns from the database.
+     */
+    public <V> CompletableFuture<List<V>> executeCriteria(final Function<IGenericDAO<E, PK>, Criteria> criteria) {
+        return executor.submit(() -> dao.<V>executeCriteria(criteria.apply(dao)), true);
+    }
+
+    /**
+     * This method is used to execute a criteria built on the worker through the query cache.
+     *
+     * @param criteria    Represents the function building the criteria from the DAO.
+     * @param cacheRegion Represents the query cache region, see IGenericDAO.executeCachedCriteria.
+     *
+     * @return CompletableFuture Represents the result returns from the database or the query cache.
+     */
+    public <V> CompletableFuture<List<V>> executeCachedCriteria(final Function<IGenericDAO<E, PK>, Criteria> criteria,
+                                                                final String cacheRegion) {
+        return executor.submit(() -> dao.<V>executeCachedCriteria(criteria.apply(dao), cacheRegion), true);
+    }
+
+    /**
+     * This method is used to execute an HQL query.
+     *
+     * @param hql        Represents the HQL query.
+     * @param parameters Represents the values of the named parameters, collections are bound as parameter lists.
+     *
+     * @return CompletableFuture Represents the result returns from the database.
+     */
+    public <V> CompletableFuture<List<V>> executeQuery(final String hql, final Map<String, ?> parameters) {
+        return executor.submit(() -> dao.<V>executeQuery(
+                GenericDAO.bindParameters(dao.getQueryObject(hql), parameters)), true);
+    }
+
+    /**
+     * This method is used to execute a native SQL query.
+     *
+     * @param sql        Represents the SQL query.
+     * @param parameters Represents the values of the named parameters, collections are bound as parameter lists.
+     *
+     * @return CompletableFuture Represents the result returns from the database.
+     */
+    public <V> CompletableFuture<List<V>> executeSQLQuery(final String sql, final Map<String, ?> parameters) {
+        return executor.submit(() -> dao.<V>executeQuery(
+                GenericDAO.bindParameters(dao.getSQLQueryObject(sql), parameters)), true);
+    }
+
+    /**
+     * @see IGenericDAO#executeRegisteredQuery(String, Map)
+     */
+    public <V> CompletableFuture<List<V>> executeRegisteredQuery(final String name, final Map<String, ?> parameters) {
+        return executor.submit(() -> dao.<V>executeRegisteredQuery(name, parameters), true);
+    }
+
+    /**
+     * @see IGenericDAO#getProjections(Class, Class, String[], Criterion...)
+     */
+    public <D> CompletableFuture<List<D>> getProjections(final Class entityClass, final Class<D> dtoClass,
+                                                         final String[] properties, final Criterion... restrictions) {
+        return executor.submit(() -> dao.getProjections(entityClass, dtoClass, properties, restrictions), true);
+    }
+
+    /**
+     * @see IGenericDAO#executeProjectionCriteria(Criteria, Class, String...)
+     */
+    public <D> CompletableFuture<List<D>> executeProjectionCriteria(
+            final Function<IGenericDAO<E, PK>, Criteria> criteria, final Class<D> dtoClass, final String... properties) {
+        return executor.submit(() -> dao.executeProjectionCriteria(criteria.apply(dao), dtoClass, properties), true);
+    }
+
+    /**
+     * @see IGenericDAO#executeCachedProjectionCriteria(Criteria, String, Class, String...)
+     */
+    public <D> CompletableFuture<List<D>> executeCachedProjectionCriteria(
+            final Function<IGenericDAO<E, PK>, Criteria> criteria, final String cacheRegion, final Class<D> dtoClass,
+            final String... properties) {
+        return executor.submit(() -> dao.executeCachedProjectionCriteria(criteria.apply(dao), cacheRegion, dtoClass,
+                properties), true);
+    }
+
+    /**
+     * @see IGenericDAO#getKeysetPage(Class, String, boolean, String, int, Criterion...)
+     */
+    public <V> CompletableFuture<KeysetPage<V>> getKeysetPage(final Class entityClass, final String sortProperty,
+                                                              final boolean ascending, final String cursor,
+                                                              final int pageSize, final Criterion... restrictions) {
+        return executor.submit(() -> dao.<V>getKeysetPage(entityClass, sortProperty, ascending, cursor, pageSize,
+                restrictions), true);
+    }
+
+    /**
+     * This method is used to execute an HQL update or delete.
+     *
+     * @param hql        Represents the HQL statement.
+     * @param parameters Represents the values of the named parameters, collections are bound as parameter lists.
+     *
+     * @return CompletableFuture Represents the number of rows updated or deleted.
+     */
+    public CompletableFuture<Integer> executeHQLDMLQuery(final String hql, final Map<String, ?> parameters) {
+        return executor.submit(() -> dao.executeHQLDMLQuery(
+                GenericDAO.bindParameters(dao.getQueryObject(hql), parameters)), false);
+    }
+
+    /**
+     * @see IGenericDAO#save(Object)
+     */
+    public CompletableFuture<PK> save(final E newInstance) {
+        return executor.submit(() -> dao.save(newInstance), false);
+    }
+
+    /**
+     * @see IGenericDAO#update(Object)
+     */
+    public CompletableFuture<Void> update(final E entity) {
+        return executor.submit(() -> {
+            dao.update(entity);
+            return null;
+        }, false);
+    }
+
+    /**
+     * @see IGenericDAO#saveOrUpdateAll(Collection, int)
+     */
+    public CompletableFuture<BulkWriteResult> saveOrUpdateAll(final Collection<?> objects, final int batchSize) {
+        return executor.submit(() -> dao.saveOrUpdateAll(objects, batchSize), false);
+    }
+
+    /**
+     * This method is used to insert entities through a StatelessSession in the transaction of the worker. The
+     * entities are copied before the call returns.
+     *
+     * @see IGenericDAO#bulkInsert(java.util.Iterator)
+     */
+    public CompletableFuture<BulkWriteResult> bulkInsert(final Collection<?> entities) {
+        final List<?> copy = new ArrayList<>(entities);
+        return executor.submit(() -> dao.bulkInsert(copy.iterator()), false);
+    }
+
+    /**
+     * This method is used to update entities through a StatelessSession in the transaction of the worker. The
+     * entities are copied before the call returns.
+     *
+     * @see IGenericDAO#bulkUpdate(java.util.Iterator)
+     */
+    public CompletableFuture<BulkWriteResult> bulkUpdate(final Collection<?> entities) {
+        final List<?> copy = new ArrayList<>(entities);
+        return executor.submit(() -> dao.bulkUpdate(copy.iterator()), false);
+    }
+
+    /**
+     * This method is used to insert entities through a StatelessSession, which commits every commit interval
+     * itself. The entities are copied before the call returns.
+     *
+     * @see IGenericDAO#bulkInsert(java.util.Iterator, int)
+     */
+    public CompletableFuture<BulkWriteResult> bulkInsert(final Collection<?> entities, final int commitInterval) {
+        final List<?> copy = new ArrayList<>(entities);
+        return executor.submitWithoutTransaction(() -> dao.bulkInsert(copy.iterator(), commitInterval));
+    }
+
+    /**
+     * This method is used to update entities through a StatelessSession, which commits every commit interval
+     * itself. The entities are copied before the call returns.
+     *
+     * @see IGenericDAO#bulkUpdate(java.util.Iterator, int)
+     */
+    public CompletableFuture<BulkWriteResult> bulkUpdate(final Collection<?> entities, final int commitInterval) {
+        final List<?> copy = new ArrayList<>(entities);
+        return executor.submitWithoutTransaction(() -> dao.bulkUpdate(copy.iterator(), commitInterval));
+    }
+
+    /**
+     * This method is used to run any work on the DAO on the worker, for calls this facade does not cover.
+     *
+     * @param work     Represents the work.
+     * @param readOnly Represents whether the transaction is read only.
+     *
+     * @return CompletableFuture Represents the result of the work.
+     */
+    public <V> CompletableFuture<V> submit(final Function<IGenericDAO<E, PK>, V> work, final boolean readOnly) {
+        return executor.submit(() -> work.apply(dao), readOnly);
+    }
+}
@@ -0,0 +1,53 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the outcome of a bulk write of the DAO layer.
+ */
+public class BulkWriteResult {
+
+    private final long rows;
+
+    private final long batches;
+
+    private final long elapsedNanos;
+
+    public BulkWriteResult(long rows, long batches, long elapsedNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the number of entities written
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of flushed batches
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0d : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkWriteResult{" +
+                "rows=" + rows +
+                ", batches=" + batches +
+                ", elapsedMillis=" + getElapsedMillis() +
+                ", rowsPerSecond=" + Math.round(getRowsPerSecond()) +
+                '}';
+    }
+}
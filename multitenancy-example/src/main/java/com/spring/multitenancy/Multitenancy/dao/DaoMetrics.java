@@ -0,0 +1,207 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.config.TenantRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collects latency, row and statement statistics of the IGenericDAO operations per tenant, entity and operation,
+ * and logs the operations slower than the configured threshold. Fed by DaoMetricsInterceptor. The operations of a
+ * tenant unknown to the TenantRegistry are counted under the default schema, and the statistics of the tenants a
+ * registry refresh removed are dropped, so the statistics stay bounded by the registered tenants.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Dao,name=daoMetrics")
+public class DaoMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaoMetrics.class);
+
+    /**
+     * Represents the number of slow operations kept for getSlowQueries.
+     */
+    private static final int SLOW_QUERY_HISTORY = 100;
+
+    /**
+     * Represents the max length of the statement logged for a slow operation.
+     */
+    private static final int MAX_STATEMENT_LENGTH = 1000;
+
+    private final ConcurrentMap<String, OperationStatistics> operations = new ConcurrentHashMap<>();
+
+    private final Deque<String> slowQueries = new ArrayDeque<>();
+
+    private final TenantRegistry tenantRegistry;
+
+    private volatile long slowQueryThresholdMillis;
+
+    /**
+     * Represents the registry refresh the statistics were last pruned after.
+     */
+    private volatile long prunedRefreshes;
+
+    @Autowired
+    public DaoMetrics(MultitenancyProperties properties, TenantRegistry tenantRegistry) {
+        this.slowQueryThresholdMillis = properties.getDao().getSlowQueryThresholdMs();
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    /**
+     * This method is used to record one DAO operation.
+     *
+     * @param tenant       Represents the tenant the operation ran for.
+     * @param entity       Represents the entity or query kind the operation worked on.
+     * @param operation    Represents the IGenericDAO method.
+     * @param elapsedNanos Represents the duration of the operation.
+     * @param rows         Represents the number of rows returned or written.
+     * @param statements   Represents the number of JDBC statements prepared by the operation.
+     * @param failed       Represents whether the operation threw.
+     * @param statement    Represents the statement of the operation, only asked for slow operations.
+     */
+    void record(String tenant, String entity, String operation, long elapsedNanos, long rows, long statements,
+                boolean failed, Supplier<String> statement) {
+        pruneRemovedTenants();
+        final String key = (tenantRegistry.getTenants().contains(tenant) ? tenant : Constant.DEFAULT_SCHEMA)
+                + '|' + entity + '|' + operation;
+        OperationStatistics statistics = operations.get(key);
+        if (statistics == null) {
+            statistics = operations.computeIfAbsent(key, k -> new OperationStatistics());
+        }
+        statistics.record(elapsedNanos, rows, statements, failed);
+
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        final long threshold = slowQueryThresholdMillis;
+        if (threshold >= 0 && elapsedMillis >= threshold) {
+            final String slowQuery = "tenant=" + tenant + ", entity=" + entity + ", operation=" + operation
+                    + ", elapsedMillis=" + elapsedMillis + ", rows=" + rows + ", statements=" + statements
+                    + ", failed=" + failed + ", statement=" + abbreviate(statement.get());
+            logger.warn("Slow DAO operation: {}", slowQuery);
+            synchronized (slowQueries) {
+                slowQueries.addFirst(slowQuery);
+                if (slowQueries.size() > SLOW_QUERY_HISTORY) {
+                    slowQueries.removeLast();
+                }
+            }
+        }
+    }
+
+    @ManagedOperation(description = "Calls, failures, rows, statements and p50/p99/p999 latency per tenant|entity|operation")
+    public Map<String, String> getOperationStatistics() {
+        Map<String, String> statistics = new TreeMap<>();
+        operations.forEach((key, value) -> statistics.put(key, value.toString()));
+        return statistics;
+    }
+
+    @ManagedOperation(description = "Statistics of the operations of a single tenant")
+    @ManagedOperationParameter(name = "tenant", description = "Tenant identifier")
+    public Map<String, String> getTenantStatistics(String tenant) {
+        Map<String, String> statistics = new TreeMap<>();
+        operations.forEach((key, value) -> {
+            if (key.startsWith(tenant + '|')) {
+                statistics.put(key, value.toString());
+            }
+        });
+        return statistics;
+    }
+
+    @ManagedOperation(description = "Most recent operations slower than the slow query threshold, newest first")
+    public List<String> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    @ManagedAttribute(description = "Duration in milliseconds from which an operation is logged as slow, negative disables")
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    @ManagedAttribute
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    @ManagedOperation(description = "Clears every statistic and the slow query history")
+    public void reset() {
+        operations.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Drops the statistics of the tenants removed from the registry, once per registry refresh.
+     */
+    private void pruneRemovedTenants() {
+        final long refreshes = tenantRegistry.getRefreshes();
+        if (refreshes != prunedRefreshes) {
+            prunedRefreshes = refreshes;
+            final Set<String> tenants = tenantRegistry.getTenants();
+            operations.keySet().removeIf(key -> !tenants.contains(key.substring(0, key.indexOf('|'))));
+        }
+    }
+
+    private static String abbreviate(String statement) {
+        return statement.length() <= MAX_STATEMENT_LENGTH ? statement
+                : statement.substring(0, MAX_STATEMENT_LENGTH) + "...";
+    }
+
+    private static class OperationStatistics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final AtomicLong calls = new AtomicLong();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        private final AtomicLong rows = new AtomicLong();
+
+        private final AtomicLong statements = new AtomicLong();
+
+        void record(long elapsedNanos, long rowCount, long statementCount, boolean failed) {
+            latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+            calls.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            rows.addAndGet(rowCount);
+            statements.addAndGet(statementCount);
+        }
+
+        @Override
+        public String toString() {
+            return "calls=" + calls.get() +
+                    ", failures=" + failures.get() +
+                    ", rows=" + rows.get() +
+                    ", statements=" + statements.get() +
+                    ", p50Millis=" + millis(latency.percentile(0.5)) +
+                    ", p99Millis=" + millis(latency.percentile(0.99)) +
+                    ", p999Millis=" + millis(latency.percentile(0.999)) +
+                    ", maxMillis=" + millis(latency.getMax());
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000d;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import com.spring.multitenancy.Multitenancy.config.TenantContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.Criteria;
+import org.hibernate.Query;
+import org.hibernate.SQLQuery;
+import org.hibernate.internal.CriteriaImpl;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+/**
+ * Times every IGenericDAO operation and hands its tenant, entity, row count and statement count to DaoMetrics.
+ */
+class DaoMetricsInterceptor implements MethodInterceptor {
+
+    private final BeanFactory beanFactory;
+
+    private volatile DaoMetrics metrics;
+
+    DaoMetricsInterceptor(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final DaoMetrics daoMetrics = metrics();
+        final long statementsBefore = StatementCounter.current();
+        final long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            daoMetrics.record(tenant(), entity(invocation), invocation.getMethod().getName(),
+                    System.nanoTime() - start, rows(invocation.getMethod(), result),
+                    StatementCounter.current() - statementsBefore, failed, () -> statement(invocation));
+        }
+    }
+
+    private DaoMetrics metrics() {
+        DaoMetrics daoMetrics = metrics;
+        if (daoMetrics == null) {
+            // looked up on first use, the DAO beans are proxied before DaoMetrics may exist
+            daoMetrics = beanFactory.getBean(DaoMetrics.class);
+            metrics = daoMetrics;
+        }
+        return daoMetrics;
+    }
+
+    private static String tenant() {
+        final String tenant = TenantContext.getTenant();
+        return StringUtils.isEmpty(tenant) ? Constant.DEFAULT_SCHEMA : tenant;
+    }
+
+    private static String entity(final MethodInvocation invocation) {
+        for (final Object argument : invocation.getArguments()) {
+            if (argument instanceof Class) {
+                return ((Class) argument).getSimpleName();
+            }
+            if (argument instanceof CriteriaImpl) {
+                return StringUtils.unqualify(((CriteriaImpl) argument).getEntityOrClassName());
+            }
+            if (argument instanceof SQLQuery) {
+                return "sql";
+            }
+            if (argument instanceof Query) {
+                return "hql";
+            }
+        }
+        return ((GenericDAO) invocation.getThis()).getEntityClass().getSimpleName();
+    }
+
+    private static long rows(final Method method, final Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection) result).size();
+        }
+        if (result instanceof KeysetPage) {
+            return ((KeysetPage) result).getItems().size();
+        }
+        if (result instanceof BulkWriteResult) {
+            return ((BulkWriteResult) result).getRows();
+        }
+        if (method.getReturnType() == int.class || method.getReturnType() == long.class) {
+            // DML update counts and scrolled row counts
+            return ((Number) result).longValue();
+        }
+        // lazily consumed streams are not counted
+        return method.getReturnType() == Stream.class ? 0 : 1;
+    }
+
+    private static String statement(final MethodInvocation invocation) {
+        for (final Object argument : invocation.getArguments()) {
+            if (argument instanceof Query) {
+                return ((Query) argument).getQueryString();
+            }
+            if (argument instanceof Criteria) {
+                return argument.toString();
+            }
+        }
+        return invocation.getMethod().getName() + arguments(invocation.getMethod(), invocation.getArguments());
+    }
+
+    /**
+     * Describes the arguments by their types and the sizes of the collections and arrays only. The arguments are
+     * never converted to strings, which would be as costly as the operation itself for a collection of many entities
+     * and would copy entity data to the log.
+     */
+    private static String arguments(final Method method, final Object[] arguments) {
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        final StringJoiner description = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < arguments.length; i++) {
+            final Object argument = arguments[i];
+            final Class<?> parameterType = parameterTypes[i];
+            if (argument == null) {
+                description.add(parameterType.getSimpleName() + "(null)");
+            } else if (argument instanceof Collection) {
+                description.add(typeOf(argument, parameterType) + "(size=" + ((Collection) argument).size() + ")");
+            } else if (argument instanceof Map) {
+                description.add(typeOf(argument, parameterType) + "(size=" + ((Map) argument).size() + ")");
+            } else if (argument.getClass().isArray()) {
+                description.add(typeOf(argument, parameterType) + "(length=" + Array.getLength(argument) + ")");
+            } else if (argument instanceof Class) {
+                description.add(((Class) argument).getSimpleName() + ".class");
+            } else {
+                description.add(typeOf(argument, parameterType));
+            }
+        }
+        return description.toString();
+    }
+
+    private static String typeOf(final Object argument, final Class<?> parameterType) {
+        if (parameterType.isPrimitive()) {
+            return parameterType.getSimpleName();
+        }
+        final String type = argument.getClass().getSimpleName();
+        // anonymous classes have no simple name
+        return type.isEmpty() ? parameterType.getSimpleName() : type;
+    }
+}
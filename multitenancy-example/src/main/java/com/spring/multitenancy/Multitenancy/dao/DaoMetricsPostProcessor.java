@@ -0,0 +1,47 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import org.hibernate.Criteria;
+import org.hibernate.Query;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Advises every GenericDAO bean with DaoMetricsInterceptor. The operations declared by IGenericDAO are
+ * instrumented, except the ones only building a Criteria or Query, which are timed when they are executed.
+ */
+@Component
+public class DaoMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final long serialVersionUID = 2380845151709623557L;
+
+    public DaoMetricsPostProcessor() {
+        // the DAOs are injected by class
+        setProxyTargetClass(true);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        this.advisor = new DefaultPointcutAdvisor(new DaoOperationPointcut(), new DaoMetricsInterceptor(beanFactory));
+    }
+
+    private static class DaoOperationPointcut extends StaticMethodMatcherPointcut {
+
+        DaoOperationPointcut() {
+            setClassFilter(GenericDAO.class::isAssignableFrom);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return !Criteria.class.isAssignableFrom(method.getReturnType())
+                    && !Query.class.isAssignableFrom(method.getReturnType())
+                    && ReflectionUtils.findMethod(IGenericDAO.class, method.getName(), method.getParameterTypes()) != null;
+        }
+    }
+}
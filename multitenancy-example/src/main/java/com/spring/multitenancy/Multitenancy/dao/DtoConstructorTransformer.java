@@ -0,0 +1,167 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+import org.hibernate.HibernateException;
+import org.hibernate.transform.ResultTransformer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps every row of a projection straight onto a public constructor of a DTO through a MethodHandle, one handle
+ * per DTO class and column types resolved once and shared by every query. Unlike AliasToBeanResultTransformer there
+ * is no per row bean introspection or setter lookup: a row costs one constructor call.
+ * <p>
+ * The constructor is the first public one whose parameters, in column order, accept the column types. When a column
+ * type is not known up front, as for native SQL queries, it is taken from the first non null value of the column.
+ * Until every column type is known, the constructor is resolved for the null columns of each row, with a primitive
+ * parameter never accepting one, and is neither kept nor shared. A row which does not fit the constructor is reported
+ * as an ApplicationException.
+ */
+final class DtoConstructorTransformer implements ResultTransformer {
+
+    private static final long serialVersionUID = -3059427104539217640L;
+
+    private static final ConcurrentMap<List<Class<?>>, MethodHandle> MAPPERS = new ConcurrentHashMap<>();
+
+    private final Class<?> dtoClass;
+
+    private final Class<?>[] columnTypes;
+
+    private transient volatile MethodHandle mapper;
+
+    /**
+     * Represents the column types known so far, from the query or the non null values of the rows.
+     */
+    private transient Class<?>[] resolvedTypes;
+
+    /**
+     * Represents the handles of the rows read while some column types were unknown, by the types of the row.
+     */
+    private transient Map<List<Class<?>>, MethodHandle> partialMappers;
+
+    /**
+     * @param columnTypes Represents the types of the columns, null entries when not known up front, null when even the
+     *                    number of columns is only known once the query ran.
+     *
+     * @throws ApplicationException throws when every column type is known and no constructor accepts them.
+     */
+    DtoConstructorTransformer(Class<?> dtoClass, Class<?>[] columnTypes) throws ApplicationException {
+        this.dtoClass = dtoClass;
+        this.columnTypes = columnTypes == null ? null : columnTypes.clone();
+        if (columnTypes != null && !Arrays.asList(columnTypes).contains(null)) {
+            mapper = mapperFor(dtoClass, columnTypes);
+        }
+    }
+
+    @Override
+    public Object transformTuple(Object[] tuple, String[] aliases) {
+        MethodHandle rowMapper = mapper;
+        if (rowMapper == null) {
+            rowMapper = resolve(tuple);
+        }
+        try {
+            return (Object) rowMapper.invokeExact(tuple);
+        } catch (ClassCastException | NullPointerException e) {
+            // a value of another type than the first ones of its column, or a null for a primitive parameter
+            throw new ApplicationException("Row of " + typesOf(tuple) + " does not fit the constructor of "
+                    + dtoClass.getName(), ErrorCode.INVALID_INPUT, e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new HibernateException("Could not create " + dtoClass.getName() + " from " + typesOf(tuple), e);
+        }
+    }
+
+    /**
+     * Completes the column types with the non null values of the row. The handle is kept, and shared through MAPPERS,
+     * only once every column type is known.
+     */
+    private MethodHandle resolve(Object[] tuple) throws ApplicationException {
+        if (resolvedTypes == null) {
+            resolvedTypes = columnTypes == null ? new Class<?>[tuple.length] : columnTypes.clone();
+        }
+        boolean complete = true;
+        for (int i = 0; i < resolvedTypes.length; i++) {
+            if (resolvedTypes[i] == null && i < tuple.length && tuple[i] != null) {
+                resolvedTypes[i] = tuple[i].getClass();
+            }
+            complete &= resolvedTypes[i] != null;
+        }
+        if (complete) {
+            return mapper = mapperFor(dtoClass, resolvedTypes);
+        }
+        // the columns still unknown are null in this row
+        if (partialMappers == null) {
+            partialMappers = new HashMap<>();
+        }
+        final Class<?>[] types = resolvedTypes.clone();
+        return partialMappers.computeIfAbsent(Arrays.asList(types), k -> createMapper(dtoClass, types));
+    }
+
+    private static String typesOf(Object[] tuple) {
+        final StringJoiner types = new StringJoiner(", ", "[", "]");
+        for (Object value : tuple) {
+            types.add(value == null ? "null" : value.getClass().getSimpleName());
+        }
+        return types.toString();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List transformList(List collection) {
+        return collection;
+    }
+
+    /**
+     * @return a handle of type (Object[])Object calling the constructor with the elements of the row
+     */
+    private static MethodHandle mapperFor(Class<?> dtoClass, Class<?>[] types) throws ApplicationException {
+        final List<Class<?>> key = new ArrayList<>(types.length + 1);
+        key.add(dtoClass);
+        key.addAll(Arrays.asList(types));
+        final MethodHandle cached = MAPPERS.get(key);
+        return cached != null ? cached : MAPPERS.computeIfAbsent(key, k -> createMapper(dtoClass, types));
+    }
+
+    private static MethodHandle createMapper(Class<?> dtoClass, Class<?>[] types) throws ApplicationException {
+        for (Constructor<?> constructor : dtoClass.getConstructors()) {
+            if (accepts(constructor.getParameterTypes(), types)) {
+                try {
+                    return MethodHandles.publicLookup().unreflectConstructor(constructor)
+                            .asSpreader(Object[].class, types.length)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                } catch (IllegalAccessException e) {
+                    throw new ApplicationException("Constructor of " + dtoClass.getName() + " is not accessible",
+                            ErrorCode.INVALID_INPUT, e);
+                }
+            }
+        }
+        throw new ApplicationException("No public constructor of " + dtoClass.getName() + " accepts "
+                + Arrays.toString(types), ErrorCode.INVALID_INPUT);
+    }
+
+    private static boolean accepts(Class<?>[] parameterTypes, Class<?>[] types) {
+        if (parameterTypes.length != types.length) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == null ? parameterTypes[i].isPrimitive()
+                    : !MethodType.methodType(parameterTypes[i]).wrap().returnType().isAssignableFrom(types[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+/**
+ * Represents how IGenericDAO loads the associations of the entities it fetches.
+ */
+public enum FetchPlan {
+
+    /**
+     * One query outer joining every association. Two or more collections multiply the fetched rows.
+     */
+    JOIN,
+
+    /**
+     * One query for the roots, then one IN batched query per association. The fetched rows grow with the size
+     * of each collection only.
+     */
+    BATCH
+}
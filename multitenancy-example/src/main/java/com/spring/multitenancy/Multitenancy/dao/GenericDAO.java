@@ -1,17 +1,43 @@
 package com.spring.multitenancy.Multitenancy.dao;
 
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.config.TenantContext;
+import com.spring.multitenancy.Multitenancy.config.TenantRegistry;
 import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
 import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
 import org.hibernate.*;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.metadata.ClassMetadata;
 import org.hibernate.sql.JoinType;
+import org.hibernate.type.StringRepresentableType;
+import org.hibernate.type.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK> {
@@ -21,6 +47,21 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
      */
     protected SessionFactory sessionFactory;
 
+    /**
+     * Represents the settings of the multitenancy infrastructure.
+     */
+    protected MultitenancyProperties properties;
+
+    /**
+     * Represents the registry of the queries executed by name.
+     */
+    protected NamedQueryRegistry namedQueryRegistry;
+
+    /**
+     * Represents the registry of the tenants and their settings.
+     */
+    protected TenantRegistry tenantRegistry;
+
     /**
      * Represents the entity class for which the DAO has been written.
      */
@@ -50,6 +91,7 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
      *             throws in case of query or DB Error.
      */
     protected Session getCrntSession() throws ApplicationException {
+        checkTenantBound();
         try {
             return sessionFactory.getCurrentSession();
         } catch (final HibernateException e) {
@@ -58,6 +100,39 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
         }
     }
 
+    /**
+     * Applies the multitenancy.tenant.guard mode when no tenant is bound to the thread, such as a task moved to another
+     * thread without TenantPropagation, which would otherwise silently read and write the default schema.
+     * 
+     * @throws ApplicationException
+     *             throws in FAIL mode when no tenant is bound.
+     */
+    private void checkTenantBound() throws ApplicationException {
+        if (!StringUtils.isEmpty(TenantContext.getTenant())) {
+            return;
+        }
+        switch (properties.getTenant().getGuard()) {
+            case FAIL:
+                throw new ApplicationException("No tenant bound to thread " + Thread.currentThread().getName(),
+                        ErrorCode.INVALID_INPUT);
+            case WARN:
+                logger.warn("DAO call without tenant on thread {}, using the default schema",
+                        Thread.currentThread().getName(), new IllegalStateException("No tenant bound"));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Getter for the entity class of the DAO.
+     * 
+     * @return Class Represents the entity class for which the DAO has been written.
+     */
+    Class<? extends E> getEntityClass() {
+        return _entityClass;
+    }
+
     /**
      * Setter for the session factory.
      * 
@@ -69,6 +144,39 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
         this.sessionFactory = sessionFactory;
     }
 
+    /**
+     * Setter for the multitenancy settings.
+     * 
+     * @param properties
+     *            Represents the settings of the multitenancy infrastructure.
+     */
+    @Autowired
+    public void setProperties(final MultitenancyProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Setter for the registry of the named queries.
+     * 
+     * @param namedQueryRegistry
+     *            Represents the registry of the queries executed by name.
+     */
+    @Autowired
+    public void setNamedQueryRegistry(final NamedQueryRegistry namedQueryRegistry) {
+        this.namedQueryRegistry = namedQueryRegistry;
+    }
+
+    /**
+     * Setter for the tenant registry.
+     * 
+     * @param tenantRegistry
+     *            Represents the registry of the tenants and their settings.
+     */
+    @Autowired
+    public void setTenantRegistry(final TenantRegistry tenantRegistry) {
+        this.tenantRegistry = tenantRegistry;
+    }
+
     /**
      * This method is used to save entity into the database
      * 
@@ -486,6 +594,33 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
     @Override
     public <V extends Object> V getEntityWithAssociations(Class entityClass, PK entityId, String... entityAssociations)
             throws ApplicationException {
+        return getEntityWithAssociations(entityClass, entityId, properties.getDao().getFetchPlan(), entityAssociations);
+    }
+
+    /**
+     * This method is used to get the generic object from database with all mentioned associations.
+     * 
+     * @param entityClass
+     *            Represents the Class for which the object needs to fetch from database.
+     * @param entityId
+     *            Represents the id for which the obejct needs to be fetch from database.
+     * @param fetchPlan
+     *            Represents how the associations are loaded.
+     * @param entityAssociations
+     *            Represents the associations of the object needs to be load with the object.
+     * 
+     * @return V Represents the Object fetched from database.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public <V extends Object> V getEntityWithAssociations(Class entityClass, PK entityId, FetchPlan fetchPlan,
+            String... entityAssociations) throws ApplicationException {
+        if (fetchPlan == FetchPlan.BATCH) {
+            final List<V> entityList = getEntitiesWithAssociations(entityClass, Collections.singletonList(entityId),
+                    fetchPlan, entityAssociations);
+            return entityList.isEmpty() ? null : entityList.get(0);
+        }
 
         V dataObject = null;
         final Criteria criteria = getCriteria(entityClass);
@@ -523,6 +658,34 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
     @Override
     public <V> List<V> getEntitiesWithAssociations(Class entityClass, List<PK> entityIds, String... entityAssociations)
             throws ApplicationException {
+        return getEntitiesWithAssociations(entityClass, entityIds, properties.getDao().getFetchPlan(),
+                entityAssociations);
+    }
+
+    /**
+     * This method is used to get the generic objects from database with all mentioned associations. With
+     * {@link FetchPlan#BATCH} the roots are loaded first, then every association is fetched into them by one query
+     * per chunk of ids, and each root is returned once in the order of the given ids.
+     * 
+     * @param entityClass
+     *            Represents the Class for which the object needs to fetch from database.
+     * @param entityIds
+     *            Represents the id for which the obejct needs to be fetch from database.
+     * @param fetchPlan
+     *            Represents how the associations are loaded.
+     * @param entityAssociations
+     *            Represents the associations of the object needs to be load with the object.
+     * 
+     * @return V Represents the Object fetched from database.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public <V> List<V> getEntitiesWithAssociations(Class entityClass, List<PK> entityIds, FetchPlan fetchPlan,
+            String... entityAssociations) throws ApplicationException {
+        if (fetchPlan == FetchPlan.BATCH) {
+            return batchFetchWithAssociations(entityClass, entityIds, entityAssociations);
+        }
 
         List<V> entityList = null;
         final Criteria criteria = getCriteria(entityClass);
@@ -540,6 +703,63 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
         return entityList;
     }
 
+    private <V> List<V> batchFetchWithAssociations(final Class entityClass, final List<PK> entityIds,
+            final String... entityAssociations) throws ApplicationException {
+        final ClassMetadata metadata = sessionFactory.getClassMetadata(entityClass);
+        if (metadata == null) {
+            throw new ApplicationException(entityClass + " is not an entity", ErrorCode.INVALID_INPUT);
+        }
+        final String idProperty = metadata.getIdentifierPropertyName();
+        final List<PK> distinctIds = new ArrayList<>(new LinkedHashSet<>(entityIds));
+        final int chunkSize = properties.getDao().getInBatchSize();
+        final Session session = getCrntSession();
+        final Map<Serializable, V> roots = new HashMap<>();
+        try {
+            for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+                final List<PK> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+                final List<V> loaded = getCriteria(entityClass).add(Restrictions.in(idProperty, chunk)).list();
+                for (final V root : loaded) {
+                    roots.put(metadata.getIdentifier(root, (SessionImplementor) session), root);
+                }
+            }
+            final List<Serializable> foundIds = new ArrayList<>(roots.keySet());
+            for (final String associationName : entityAssociations) {
+                // the roots are already in the session, so each query only initializes their association
+                final Query query = session.createQuery(batchFetchHql(metadata, associationName));
+                for (int from = 0; from < foundIds.size(); from += chunkSize) {
+                    query.setParameterList("ids", foundIds.subList(from, Math.min(from + chunkSize, foundIds.size())))
+                            .list();
+                }
+            }
+        } catch (final HibernateException e) {
+            logger.error("getEntityWithAssociations : failed to batch fetch entity class for entityId {}", entityIds);
+            throw new ApplicationException("Exception while batch fetching associations of " + entityClass,
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+        final List<V> entityList = new ArrayList<>(roots.size());
+        for (final PK entityId : distinctIds) {
+            final V root = roots.get(entityId);
+            if (root != null) {
+                entityList.add(root);
+            }
+        }
+        return entityList;
+    }
+
+    private static String batchFetchHql(final ClassMetadata metadata, final String associationPath) {
+        final StringBuilder hql = new StringBuilder("select distinct root from ").append(metadata.getEntityName())
+                .append(" root");
+        String owner = "root";
+        int depth = 0;
+        for (final String association : associationPath.split("\\.")) {
+            final String alias = "fetched" + depth++;
+            hql.append(" left join fetch ").append(owner).append('.').append(association).append(' ').append(alias);
+            owner = alias;
+        }
+        return hql.append(" where root.").append(metadata.getIdentifierPropertyName()).append(" in (:ids)")
+                .toString();
+    }
+
     /**
      * This method is used to get Query object for Hibernate Query.
      * 
@@ -606,6 +826,71 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
         }
     }
 
+    /**
+     * This method is used to get Query object for a query registered in NamedQueryRegistry.
+     * 
+     * @param name
+     *            Represents the name the query was registered with.
+     * 
+     * @return Represents the Query object.
+     * @throws ApplicationException
+     *             throws when no query is registered with the name, in case of query or DB Error.
+     */
+    @Override
+    public Query getRegisteredQuery(final String name) throws ApplicationException {
+        final NamedQueryRegistry.RegisteredQuery registered = namedQueryRegistry.lookup(name);
+        return registered.isNativeQuery() ? getSQLQueryObject(registered.getQueryString())
+                : getQueryObject(registered.getQueryString());
+    }
+
+    /**
+     * This method is used to execute a query registered in NamedQueryRegistry with the given parameters.
+     * 
+     * @param name
+     *            Represents the name the query was registered with.
+     * @param parameters
+     *            Represents the values of the named parameters of the query.
+     * 
+     * @return List Represents the result returns from the database.
+     * @throws ApplicationException
+     *             throws when the parameters do not match the query, in case of query or DB Error.
+     */
+    @Override
+    public <V> List<V> executeRegisteredQuery(final String name, final Map<String, ?> parameters)
+            throws ApplicationException {
+        final NamedQueryRegistry.RegisteredQuery registered = namedQueryRegistry.lookup(name);
+        if (!registered.getParameterNames().equals(parameters.keySet())) {
+            throw new ApplicationException("Query " + name + " expects parameters " + registered.getParameterNames()
+                    + " but got " + parameters.keySet(), ErrorCode.INVALID_INPUT);
+        }
+        final Query query = registered.isNativeQuery() ? getSQLQueryObject(registered.getQueryString())
+                : getQueryObject(registered.getQueryString());
+        return executeQuery(bindParameters(query, parameters));
+    }
+
+    /**
+     * Binds the named parameters of a query, collection values as parameter lists.
+     * 
+     * @return Query Represents the query passed in.
+     * @throws ApplicationException
+     *             throws when a parameter is not a parameter of the query.
+     */
+    static Query bindParameters(final Query query, final Map<String, ?> parameters) throws ApplicationException {
+        try {
+            for (Map.Entry<String, ?> parameter : parameters.entrySet()) {
+                if (parameter.getValue() instanceof Collection) {
+                    query.setParameterList(parameter.getKey(), (Collection) parameter.getValue());
+                } else {
+                    query.setParameter(parameter.getKey(), parameter.getValue());
+                }
+            }
+            return query;
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while binding parameters of query " + query.getQueryString(),
+                    ErrorCode.INVALID_INPUT, e);
+        }
+    }
+
     /**
      * This method is used to get the results from the Hibernate DDL Query object.
      * 
@@ -713,4 +998,690 @@ public class GenericDAO<E, PK extends Serializable> implements IGenericDAO<E, PK
         }
     }
 
+    /**
+     * This method is used to execute the query of the Criteria object through the query cache.
+     * 
+     * @param criteria
+     *            Represents the criteria object which is going to execute the query.
+     * @param cacheRegion
+     *            Represents the query cache region, null for the default query cache region.
+     * 
+     * @return List Represents the results return from the query.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public <V> List<V> executeCachedCriteria(final Criteria criteria, final String cacheRegion)
+            throws ApplicationException {
+        try {
+            return cacheable(criteria, cacheRegion).list();
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while executing cached criteria " + criteria,
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    /**
+     * Makes the criteria cacheable in the region, unless the query cache is disabled for the tenant of the thread.
+     */
+    private Criteria cacheable(final Criteria criteria, final String cacheRegion) {
+        if (isQueryCacheEnabled()) {
+            criteria.setCacheable(true);
+            if (cacheRegion != null) {
+                criteria.setCacheRegion(cacheRegion);
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * @return whether the query cache is enabled for the tenant of the thread, see TenantSettings
+     */
+    private boolean isQueryCacheEnabled() {
+        return tenantRegistry.getSettings(TenantContext.getTenant()).isQueryCacheEnabled();
+    }
+
+    /**
+     * This method is used to get the results of the Hibernate Query object through the query cache.
+     * 
+     * @param query
+     *            Represents the hibernate query object for which the results needs to be fetched.
+     * @param cacheRegion
+     *            Represents the query cache region, null for the default query cache region.
+     * 
+     * @return List Represents the result returns from the database or the cache.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public <V> List<V> executeCachedQuery(final Query query, final String cacheRegion) throws ApplicationException {
+        try {
+            if (isQueryCacheEnabled()) {
+                query.setCacheable(true);
+                if (cacheRegion != null) {
+                    query.setCacheRegion(cacheRegion);
+                }
+            }
+            return query.list();
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while executing cached hq query  " + query,
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    /**
+     * This method is used to save Or update all objects into the database in JDBC batches.
+     * 
+     * @param objects
+     *            represents collection of objects
+     * @param batchSize
+     *            represents the number of objects written before the session is flushed and cleared.
+     * 
+     * @return BulkWriteResult represents the number of written objects and the write throughput.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public BulkWriteResult saveOrUpdateAll(final Collection<?> objects, final int batchSize)
+            throws ApplicationException {
+        if (batchSize < 1) {
+            throw new ApplicationException("Batch size must be positive", ErrorCode.INVALID_INPUT);
+        }
+        final long start = System.nanoTime();
+        final Session session = getCrntSession();
+        long rows = 0;
+        long batches = 0;
+        try {
+            for (Object object : objects) {
+                session.saveOrUpdate(object);
+                if (++rows % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                    batches++;
+                }
+            }
+            if (rows % batchSize != 0) {
+                session.flush();
+                session.clear();
+                batches++;
+            }
+        } catch (final HibernateException e) {
+            logger.error("saveOrUpdateAll: failed after {} rows", rows);
+            throw new ApplicationException("Exception while batch save or update All ", ErrorCode.BASE_DB_ERROR, e);
+        }
+        final BulkWriteResult result = new BulkWriteResult(rows, batches, System.nanoTime() - start);
+        logger.debug("saveOrUpdateAll: {}", result);
+        return result;
+    }
+
+    /**
+     * This method is used to insert a large number of entities of the current tenant through a StatelessSession
+     * sharing the connection of the current session.
+     * 
+     * @param entities
+     *            represents the entities to be inserted, consumed once.
+     * 
+     * @return BulkWriteResult represents the number of inserted entities and the write throughput.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public BulkWriteResult bulkInsert(final Iterator<?> entities) throws ApplicationException {
+        return statelessWrite(entities, true);
+    }
+
+    @Override
+    public BulkWriteResult bulkInsert(final Stream<?> entities) throws ApplicationException {
+        try (Stream<?> stream = entities) {
+            return statelessWrite(stream.iterator(), true);
+        }
+    }
+
+    /**
+     * This method is used to update a large number of detached entities of the current tenant through a
+     * StatelessSession sharing the connection of the current session.
+     * 
+     * @param entities
+     *            represents the entities to be updated, consumed once.
+     * 
+     * @return BulkWriteResult represents the number of updated entities and the write throughput.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public BulkWriteResult bulkUpdate(final Iterator<?> entities) throws ApplicationException {
+        return statelessWrite(entities, false);
+    }
+
+    @Override
+    public BulkWriteResult bulkUpdate(final Stream<?> entities) throws ApplicationException {
+        try (Stream<?> stream = entities) {
+            return statelessWrite(stream.iterator(), false);
+        }
+    }
+
+    /**
+     * This method is used to insert a large number of entities of the current tenant through a StatelessSession
+     * committing its own transaction every commitInterval entities. It must not be called inside a transaction.
+     * 
+     * @param entities
+     *            represents the entities to be inserted, consumed once.
+     * @param commitInterval
+     *            represents the number of entities inserted per transaction.
+     * 
+     * @return BulkWriteResult represents the number of inserted entities and the write throughput.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error, or when a transaction is active.
+     */
+    @Override
+    public BulkWriteResult bulkInsert(final Iterator<?> entities, final int commitInterval)
+            throws ApplicationException {
+        return committingStatelessWrite(entities, commitInterval, true);
+    }
+
+    @Override
+    public BulkWriteResult bulkInsert(final Stream<?> entities, final int commitInterval)
+            throws ApplicationException {
+        try (Stream<?> stream = entities) {
+            return committingStatelessWrite(stream.iterator(), commitInterval, true);
+        }
+    }
+
+    /**
+     * This method is used to update a large number of detached entities of the current tenant through a
+     * StatelessSession committing its own transaction every commitInterval entities. It must not be called inside a
+     * transaction.
+     * 
+     * @param entities
+     *            represents the entities to be updated, consumed once.
+     * @param commitInterval
+     *            represents the number of entities updated per transaction.
+     * 
+     * @return BulkWriteResult represents the number of updated entities and the write throughput.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error, or when a transaction is active.
+     */
+    @Override
+    public BulkWriteResult bulkUpdate(final Iterator<?> entities, final int commitInterval)
+            throws ApplicationException {
+        return committingStatelessWrite(entities, commitInterval, false);
+    }
+
+    @Override
+    public BulkWriteResult bulkUpdate(final Stream<?> entities, final int commitInterval)
+            throws ApplicationException {
+        try (Stream<?> stream = entities) {
+            return committingStatelessWrite(stream.iterator(), commitInterval, false);
+        }
+    }
+
+    /**
+     * Writes the entities through a StatelessSession opened on the connection of the current session, so no second
+     * connection is checked out and the writes are committed or rolled back with the other writes of the current
+     * session. The current session is flushed first, so the writes see the entities it holds.
+     */
+    private BulkWriteResult statelessWrite(final Iterator<?> entities, final boolean insert)
+            throws ApplicationException {
+        final String operation = insert ? "bulkInsert" : "bulkUpdate";
+        final long start = System.nanoTime();
+        final Session current = getCrntSession();
+        long rows = 0;
+        StatelessSession session = null;
+        try {
+            current.flush();
+            session = sessionFactory.withStatelessOptions()
+                    .connection(((SessionImplementor) current).connection())
+                    .openStatelessSession();
+            while (entities.hasNext()) {
+                final Object entity = entities.next();
+                if (insert) {
+                    session.insert(entity);
+                } else {
+                    session.update(entity);
+                }
+                rows++;
+            }
+            // without a transaction of its own nothing sends the last JDBC batch before the session is closed
+            ((SessionImplementor) session).getJdbcCoordinator().executeBatch();
+        } catch (final HibernateException e) {
+            logger.error("{}: failed after {} rows", operation, rows);
+            throw new ApplicationException("Exception while " + operation, ErrorCode.BASE_DB_ERROR, e);
+        } finally {
+            if (session != null) {
+                // the connection stays open, it belongs to the current session
+                session.close();
+            }
+        }
+        final BulkWriteResult result = new BulkWriteResult(rows, rows > 0 ? 1 : 0, System.nanoTime() - start);
+        logger.debug("{}: {}", operation, result);
+        return result;
+    }
+
+    /**
+     * Writes the entities through a StatelessSession with its own connection, committing every commitInterval
+     * entities. Refused inside a transaction, which would hold its connection while waiting for a second one and
+     * could not roll the committed entities back.
+     */
+    private BulkWriteResult committingStatelessWrite(final Iterator<?> entities, final int commitInterval,
+                                                     final boolean insert) throws ApplicationException {
+        if (commitInterval < 1) {
+            throw new ApplicationException("Commit interval must be positive", ErrorCode.INVALID_INPUT);
+        }
+        final String operation = insert ? "bulkInsert" : "bulkUpdate";
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new ApplicationException(operation + " with a commit interval must not run inside a transaction",
+                    ErrorCode.INVALID_INPUT);
+        }
+        final long start = System.nanoTime();
+        checkTenantBound();
+        long rows = 0;
+        long committed = 0;
+        long batches = 0;
+        StatelessSession session = null;
+        Transaction transaction = null;
+        try {
+            // the tenant of the session is resolved by the CurrentTenantIdentifierResolver
+            session = sessionFactory.withStatelessOptions().openStatelessSession();
+            transaction = session.beginTransaction();
+            while (entities.hasNext()) {
+                final Object entity = entities.next();
+                if (insert) {
+                    session.insert(entity);
+                } else {
+                    session.update(entity);
+                }
+                if (++rows % commitInterval == 0) {
+                    transaction.commit();
+                    committed = rows;
+                    batches++;
+                    transaction = session.beginTransaction();
+                }
+            }
+            transaction.commit();
+            if (rows > committed) {
+                batches++;
+            }
+            committed = rows;
+        } catch (final HibernateException e) {
+            logger.error("{}: failed after {} committed rows", operation, committed);
+            if (transaction != null && transaction.getStatus().canRollback()) {
+                transaction.rollback();
+            }
+            throw new ApplicationException("Exception while " + operation + ", " + committed + " rows committed",
+                    ErrorCode.BASE_DB_ERROR, e);
+        } finally {
+            if (session != null) {
+                session.close();
+            }
+        }
+        final BulkWriteResult result = new BulkWriteResult(rows, batches, System.nanoTime() - start);
+        logger.debug("{}: {}", operation, result);
+        return result;
+    }
+
+    /**
+     * This method is used to stream the results of the Criteria object instead of loading them into a list.
+     * 
+     * @param criteria
+     *            Represents the criteria object which is going to execute the query.
+     * @param clearInterval
+     *            Represents the number of rows after which the session is cleared.
+     * 
+     * @return Stream Represents the results of the query.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public <V> Stream<V> streamCriteria(final Criteria criteria, final int clearInterval) throws ApplicationException {
+        try {
+            criteria.setReadOnly(true);
+            criteria.setFetchSize(properties.getDao().getStreamFetchSize());
+            return stream(criteria.scroll(ScrollMode.FORWARD_ONLY), clearInterval);
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while streaming criteria " + criteria, ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    /**
+     * This method is used to stream the results of the Hibernate Query object instead of loading them into a list.
+     * 
+     * @param query
+     *            Represents the hibernate query object for which the results needs to be fetched.
+     * @param clearInterval
+     *            Represents the number of rows after which the session is cleared.
+     * 
+     * @return Stream Represents the results of the query.
+     * @throws ApplicationException
+     *             throws in case of query or DB Error.
+     */
+    @Override
+    public <V> Stream<V> streamQuery(final Query query, final int clearInterval) throws ApplicationException {
+        try {
+            query.setReadOnly(true);
+            query.setFetchSize(properties.getDao().getStreamFetchSize());
+            return stream(query.scroll(ScrollMode.FORWARD_ONLY), clearInterval);
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while streaming hq query  " + query, ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    @Override
+    public <V> long scrollCriteria(final Criteria criteria, final int clearInterval, final Consumer<V> rowCallback)
+            throws ApplicationException {
+        try (Stream<V> rows = streamCriteria(criteria, clearInterval)) {
+            return scroll(rows, rowCallback);
+        }
+    }
+
+    @Override
+    public <V> long scrollQuery(final Query query, final int clearInterval, final Consumer<V> rowCallback)
+            throws ApplicationException {
+        try (Stream<V> rows = streamQuery(query, clearInterval)) {
+            return scroll(rows, rowCallback);
+        }
+    }
+
+    private <V> long scroll(final Stream<V> rows, final Consumer<V> rowCallback) throws ApplicationException {
+        final long[] count = new long[1];
+        try {
+            rows.forEach(row -> {
+                rowCallback.accept(row);
+                count[0]++;
+            });
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while scrolling results after " + count[0] + " rows",
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+        return count[0];
+    }
+
+    /**
+     * Wraps forward only scrollable results into a sequential stream which clears the session every clearInterval
+     * rows and closes the results when the stream is closed.
+     */
+    private <V> Stream<V> stream(final ScrollableResults results, final int clearInterval) {
+        final Session session = getCrntSession();
+        final Iterator<V> iterator = new Iterator<V>() {
+
+            private long rows;
+
+            private Boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (hasNext == null) {
+                    if (clearInterval > 0 && rows > 0 && rows % clearInterval == 0) {
+                        session.clear();
+                    }
+                    hasNext = results.next();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = null;
+                rows++;
+                final Object[] row = results.get();
+                return (V) (row.length == 1 ? row[0] : row);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(results::close);
+    }
+
+    /**
+     * This method is used to get a page of entities with keyset (seek) pagination.
+     * 
+     * @param entityClass
+     *            Represents the class for which the page needs to be fetched.
+     * @param sortProperty
+     *            Represents the property the page is ordered by.
+     * @param ascending
+     *            Represents the sort direction.
+     * @param cursor
+     *            Represents the cursor returned with the previous page, null for the first page.
+     * @param pageSize
+     *            Represents the max number of entities of the page.
+     * @param restrictions
+     *            Represents the filters applied to every page.
+     * 
+     * @return KeysetPage Represents the entities of the page and the cursor of the next page.
+     * @throws ApplicationException
+     *             throws in case of invalid cursor, query or DB Error.
+     */
+    @Override
+    public <V> KeysetPage<V> getKeysetPage(final Class entityClass, final String sortProperty, final boolean ascending,
+            final String cursor, final int pageSize, final Criterion... restrictions) throws ApplicationException {
+        if (pageSize < 1) {
+            throw new ApplicationException("Page size must be positive", ErrorCode.INVALID_INPUT);
+        }
+        final ClassMetadata metadata = sessionFactory.getClassMetadata(entityClass);
+        if (metadata == null) {
+            throw new ApplicationException(entityClass + " is not an entity", ErrorCode.INVALID_INPUT);
+        }
+        final String idProperty = metadata.getIdentifierPropertyName();
+        final boolean sortById = sortProperty.equals(idProperty);
+        final StringRepresentableType<Object> idType = keyType(metadata.getIdentifierType(), idProperty);
+        final StringRepresentableType<Object> sortType = sortById ? idType
+                : keyType(metadata.getPropertyType(sortProperty), sortProperty);
+        final Criteria criteria = getCriteria(entityClass);
+        try {
+            for (final Criterion restriction : restrictions) {
+                criteria.add(restriction);
+            }
+            if (cursor != null) {
+                final String[] lastKey = KeysetCursor.decode(cursor, sortProperty, sortById ? 1 : 2);
+                final Object lastSortValue = parseKey(sortType, lastKey[0], cursor);
+                if (sortById) {
+                    criteria.add(after(idProperty, lastSortValue, ascending));
+                } else {
+                    final Object lastId = parseKey(idType, lastKey[1], cursor);
+                    // the first conjunct lets the database use a range scan on the sort property
+                    criteria.add(ascending ? Restrictions.ge(sortProperty, lastSortValue)
+                            : Restrictions.le(sortProperty, lastSortValue));
+                    criteria.add(Restrictions.or(after(sortProperty, lastSortValue, ascending), Restrictions.and(
+                            Restrictions.eq(sortProperty, lastSortValue), after(idProperty, lastId, ascending))));
+                }
+            }
+            criteria.addOrder(ascending ? Order.asc(sortProperty) : Order.desc(sortProperty));
+            if (!sortById) {
+                criteria.addOrder(ascending ? Order.asc(idProperty) : Order.desc(idProperty));
+            }
+            // one more row than the page tells whether there is a next page
+            criteria.setMaxResults(pageSize + 1);
+            final List<V> rows = criteria.list();
+            if (rows.size() <= pageSize) {
+                return new KeysetPage<>(rows, null);
+            }
+            final List<V> items = new ArrayList<>(rows.subList(0, pageSize));
+            final V last = items.get(pageSize - 1);
+            final Object lastId = metadata.getIdentifier(last, (SessionImplementor) getCrntSession());
+            if (sortById) {
+                return new KeysetPage<>(items, KeysetCursor.encode(sortProperty, idType.toString(lastId)));
+            }
+            final Object lastSortValue = metadata.getPropertyValue(last, sortProperty);
+            if (lastSortValue == null) {
+                throw new ApplicationException("Sort property " + sortProperty + " must not be null",
+                        ErrorCode.INVALID_INPUT);
+            }
+            return new KeysetPage<>(items,
+                    KeysetCursor.encode(sortProperty, sortType.toString(lastSortValue), idType.toString(lastId)));
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while executing keyset page " + criteria,
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    private static Criterion after(final String property, final Object value, final boolean ascending) {
+        return ascending ? Restrictions.gt(property, value) : Restrictions.lt(property, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StringRepresentableType<Object> keyType(final Type type, final String property)
+            throws ApplicationException {
+        if (!(type instanceof StringRepresentableType)) {
+            throw new ApplicationException("Keyset property " + property + " must be a basic property",
+                    ErrorCode.INVALID_INPUT);
+        }
+        return (StringRepresentableType<Object>) type;
+    }
+
+    /**
+     * Parses a key value of a cursor. A value that does not fit the property type is reported as invalid input,
+     * like a cursor which cannot be decoded at all.
+     */
+    private static Object parseKey(final StringRepresentableType<Object> type, final String value,
+            final String cursor) throws ApplicationException {
+        try {
+            return type.fromStringValue(value);
+        } catch (final HibernateException | IllegalArgumentException e) {
+            throw new ApplicationException("Invalid cursor " + cursor, ErrorCode.INVALID_INPUT, e);
+        }
+    }
+
+    /**
+     * This method is used to select only the given properties of the entities into DTOs.
+     * 
+     * @param entityClass
+     *            Represents the class of the entities to select from.
+     * @param dtoClass
+     *            Represents the DTO class, with a public constructor taking the properties in order.
+     * @param properties
+     *            Represents the properties to select, in the order of the constructor parameters.
+     * @param restrictions
+     *            Represents the filters of the query.
+     * 
+     * @return List Represents the DTOs, one per matching entity.
+     * @throws ApplicationException
+     *             throws in case of no matching constructor, query or DB Error.
+     */
+    @Override
+    public <D> List<D> getProjections(final Class entityClass, final Class<D> dtoClass, final String[] properties,
+            final Criterion... restrictions) throws ApplicationException {
+        final Criteria criteria = getCriteria(entityClass);
+        for (final Criterion restriction : restrictions) {
+            criteria.add(restriction);
+        }
+        return executeProjectionCriteria(criteria, dtoClass, properties);
+    }
+
+    /**
+     * This method is used to execute the Criteria object selecting only the given properties into DTOs.
+     * 
+     * @param criteria
+     *            Represents the criteria object which is going to execute the query.
+     * @param dtoClass
+     *            Represents the DTO class, with a public constructor taking the properties in order.
+     * @param properties
+     *            Represents the properties to select, in the order of the constructor parameters.
+     * 
+     * @return List Represents the DTOs, one per row.
+     * @throws ApplicationException
+     *             throws in case of no matching constructor, query or DB Error.
+     */
+    @Override
+    public <D> List<D> executeProjectionCriteria(final Criteria criteria, final Class<D> dtoClass,
+            final String... properties) throws ApplicationException {
+        if (properties.length == 0) {
+            throw new ApplicationException("At least one property must be projected", ErrorCode.INVALID_INPUT);
+        }
+        final ClassMetadata metadata = criteria instanceof CriteriaImpl
+                ? sessionFactory.getClassMetadata(((CriteriaImpl) criteria).getEntityOrClassName()) : null;
+        final ProjectionList projection = Projections.projectionList();
+        final Class<?>[] columnTypes = new Class<?>[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            projection.add(Projections.property(properties[i]));
+            columnTypes[i] = propertyClass(metadata, properties[i]);
+        }
+        try {
+            return criteria.setProjection(projection)
+                    .setResultTransformer(new DtoConstructorTransformer(dtoClass, columnTypes))
+                    .list();
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while executing projection criteria " + criteria,
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    /**
+     * This method is used to execute the Criteria object selecting only the given properties into DTOs through the
+     * query cache.
+     * 
+     * @param criteria
+     *            Represents the criteria object which is going to execute the query.
+     * @param cacheRegion
+     *            Represents the query cache region, null for the default query cache region.
+     * @param dtoClass
+     *            Represents the DTO class, with a public constructor taking the properties in order.
+     * @param properties
+     *            Represents the properties to select, in the order of the constructor parameters.
+     * 
+     * @return List Represents the DTOs, one per row.
+     * @throws ApplicationException
+     *             throws in case of no matching constructor, query or DB Error.
+     */
+    @Override
+    public <D> List<D> executeCachedProjectionCriteria(final Criteria criteria, final String cacheRegion,
+            final Class<D> dtoClass, final String... properties) throws ApplicationException {
+        return executeProjectionCriteria(cacheable(criteria, cacheRegion), dtoClass, properties);
+    }
+
+    /**
+     * This method is used to execute a HQL or SQL query selecting scalar columns into DTOs.
+     * 
+     * @param query
+     *            Represents the hibernate query object selecting the constructor arguments.
+     * @param dtoClass
+     *            Represents the DTO class, with a public constructor taking the selected columns in order.
+     * 
+     * @return List Represents the DTOs, one per row.
+     * @throws ApplicationException
+     *             throws in case of no matching constructor, query or DB Error.
+     */
+    @Override
+    public <D> List<D> executeProjectionQuery(final Query query, final Class<D> dtoClass)
+            throws ApplicationException {
+        try {
+            return query.setResultTransformer(new DtoConstructorTransformer(dtoClass, columnClasses(query))).list();
+        } catch (final HibernateException e) {
+            throw new ApplicationException("Exception while executing projection query " + query,
+                    ErrorCode.BASE_DB_ERROR, e);
+        }
+    }
+
+    /**
+     * @return the Java types of the selected columns, null for a SQL query whose columns are only known once it ran
+     */
+    private static Class<?>[] columnClasses(final Query query) {
+        if (query instanceof SQLQuery) {
+            return null;
+        }
+        final Type[] types = query.getReturnTypes();
+        final Class<?>[] classes = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            classes[i] = types[i].getReturnedClass();
+        }
+        return classes;
+    }
+
+    /**
+     * @return the Java type of the property, null when it is a path through an alias resolved from the first row
+     */
+    private static Class<?> propertyClass(final ClassMetadata metadata, final String property) {
+        if (metadata == null || property.indexOf('.') >= 0) {
+            return null;
+        }
+        if (property.equals(metadata.getIdentifierPropertyName())) {
+            return metadata.getIdentifierType().getReturnedClass();
+        }
+        try {
+            return metadata.getPropertyType(property).getReturnedClass();
+        } catch (final HibernateException e) {
+            return null;
+        }
+    }
 }
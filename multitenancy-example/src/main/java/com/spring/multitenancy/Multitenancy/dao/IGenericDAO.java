@@ -5,10 +5,15 @@ import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.criterion.Criterion;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 
@@ -252,6 +257,35 @@ public interface IGenericDAO<E, PK extends Serializable> {
 	 * @throws ApplicationException throws in case of query or DB Error. 
 	 */
 	<V> List<V> getEntitiesWithAssociations(Class entityClass, List<PK> entityIds, final String... entityAssociations) throws ApplicationException;
+
+	/**
+	 * This method is used to get the generic object from database with all mentioned associations, loaded
+	 * according to the given fetch plan.
+	 * 	
+	 * @param entityClass		 Represents the Class for which the object needs to fetch from database.
+	 * @param entityId			 Represents the id for which the obejct needs to be fetch from database.
+	 * @param fetchPlan			 Represents how the associations are loaded.
+	 * @param entityAssociations Represents the associations of the object needs to be load with the object.
+	 * 
+	 * @return V 				 Represents the Object fetched from database.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 */
+	<V extends Object> V getEntityWithAssociations(Class entityClass, final PK entityId, FetchPlan fetchPlan, final String... entityAssociations) throws ApplicationException;
+	
+	/**
+	 * This method is used to get multiple entities with association, loaded according to the given fetch plan.
+	 * {@link FetchPlan#BATCH} avoids the cartesian product of joining several collections: it loads the roots, then
+	 * each association with one IN batched query, and returns every root once.
+	 * 
+	 * @param entityClass		 Represents the Class for which the objects need to fetch from database.
+	 * @param entityIds			 Represents the ids for which the obejcts need to be fetch from database.
+	 * @param fetchPlan			 Represents how the associations are loaded.
+	 * @param entityAssociations Represents the associations of the objects need to be load with the objects.
+	
+	 * @return V 				 Represents the Objects fetched from database.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 */
+	<V> List<V> getEntitiesWithAssociations(Class entityClass, List<PK> entityIds, FetchPlan fetchPlan, final String... entityAssociations) throws ApplicationException;
 	
 	/**
 	 * This method is used to get Query object for Hibernate Query.
@@ -273,6 +307,29 @@ public interface IGenericDAO<E, PK extends Serializable> {
 	 */
 	Query getQueryFromNamedQuery(String namedQuery) throws ApplicationException;
 	
+	/**
+	 * This method is used to get Query object for a query registered in NamedQueryRegistry. The registered query
+	 * string is passed unchanged, so Hibernate reuses the plan translated when the query was registered.
+	 * 
+	 * @param name Represents the name the query was registered with.
+	 * 
+	 * @return Represents the Query object.
+	 * @throws ApplicationException throws when no query is registered with the name, in case of query or DB Error.
+	 */
+	Query getRegisteredQuery(String name) throws ApplicationException;
+	
+	/**
+	 * This method is used to execute a query registered in NamedQueryRegistry with the given parameters.
+	 * Collection values are bound as parameter lists.
+	 * 
+	 * @param name       Represents the name the query was registered with.
+	 * @param parameters Represents the values of the named parameters of the query.
+	 * 
+	 * @return List Represents the result returns from the database.
+	 * @throws ApplicationException throws when the parameters do not match the query, in case of query or DB Error.
+	 */
+	<V> List<V> executeRegisteredQuery(String name, Map<String, ?> parameters) throws ApplicationException;
+	
 	/**
 	 * This method is used to get the results from the Hibernate DDL Query object.
 	 * 
@@ -322,5 +379,285 @@ public interface IGenericDAO<E, PK extends Serializable> {
 
 	 public <V extends Object> V getSerialzableObject(final Class classs, final Serializable id) throws ApplicationException;
 
+	/**
+	 * This method is used to execute the query of the Criteria object through the query cache. The results are
+	 * cached per tenant in the given region and the entities are resolved from the second-level cache. The query
+	 * cache is bypassed for the tenants whose TenantSettings disable it.
+	 * 
+	 * @param criteria    Represents the criteria object which is going to execute the query.
+	 * @param cacheRegion Represents the query cache region, null for the default query cache region.
+	 * 
+	 * @return List     Represents the results return from the query.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 */
+	<V> List<V> executeCachedCriteria(Criteria criteria, String cacheRegion) throws ApplicationException;
 	
+	/**
+	 * This method is used to get the results of the Hibernate Query object through the query cache. The results are
+	 * cached per tenant in the given region and the entities are resolved from the second-level cache. The query
+	 * cache is bypassed for the tenants whose TenantSettings disable it.
+	 * 
+	 * @param query       Represents the hibernate query object for which the results needs to be fetched.
+	 * @param cacheRegion Represents the query cache region, null for the default query cache region.
+	 * 
+	 * @return List Represents the result returns from the database or the cache.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 */
+	<V> List<V> executeCachedQuery(Query query, String cacheRegion) throws ApplicationException;
+
+	/**
+	 * This method is used to save Or update all objects into the database in JDBC batches. The session is flushed
+	 * and cleared after every batch, so the objects (and any other entity of the current session) are detached
+	 * afterwards. The batch size should match the hibernate.jdbc.batch_size setting.
+	 * 
+	 * @param objects   represents collection of objects
+	 * @param batchSize represents the number of objects written before the session is flushed and cleared.
+	 * 
+	 * @return BulkWriteResult represents the number of written objects and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 */
+	BulkWriteResult saveOrUpdateAll(Collection<?> objects, int batchSize) throws ApplicationException;
+
+	/**
+	 * This method is used to insert a large number of entities of the current tenant through a StatelessSession.
+	 * Entities are neither dirty checked nor kept in a persistence context and no cascades are applied, so the heap
+	 * stays flat whatever the number of entities. The StatelessSession uses the connection of the current session, so
+	 * no second connection is held and the inserts are committed or rolled back with the other writes of the current
+	 * session.
+	 * 
+	 * @param entities represents the entities to be inserted, consumed once.
+	 * 
+	 * @return BulkWriteResult represents the number of inserted entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error.
+	 */
+	BulkWriteResult bulkInsert(Iterator<?> entities) throws ApplicationException;
+
+	/**
+	 * This method is used to insert a large number of entities of the current tenant through a StatelessSession.
+	 * 
+	 * @param entities represents the entities to be inserted, the stream is closed afterwards.
+	 * 
+	 * @return BulkWriteResult represents the number of inserted entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error.
+	 * @see #bulkInsert(Iterator)
+	 */
+	BulkWriteResult bulkInsert(Stream<?> entities) throws ApplicationException;
+
+	/**
+	 * This method is used to update a large number of detached entities of the current tenant through a
+	 * StatelessSession sharing the connection of the current session. Every entity is updated as a whole, without
+	 * dirty checking nor version increment.
+	 * 
+	 * @param entities represents the entities to be updated, consumed once.
+	 * 
+	 * @return BulkWriteResult represents the number of updated entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error.
+	 * @see #bulkInsert(Iterator)
+	 */
+	BulkWriteResult bulkUpdate(Iterator<?> entities) throws ApplicationException;
+
+	/**
+	 * This method is used to update a large number of detached entities of the current tenant through a
+	 * StatelessSession.
+	 * 
+	 * @param entities represents the entities to be updated, the stream is closed afterwards.
+	 * 
+	 * @return BulkWriteResult represents the number of updated entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error.
+	 * @see #bulkUpdate(Iterator)
+	 */
+	BulkWriteResult bulkUpdate(Stream<?> entities) throws ApplicationException;
+
+	/**
+	 * This method is used to insert a large number of entities of the current tenant through a StatelessSession with
+	 * its own connection, committed in own transactions of commitInterval entities. This is an opt-in for loads too
+	 * large for one transaction: it is refused inside a transaction, as the caller would hold a second connection and
+	 * could not roll the committed entities back.
+	 * 
+	 * @param entities       represents the entities to be inserted, consumed once.
+	 * @param commitInterval represents the number of entities inserted per transaction.
+	 * 
+	 * @return BulkWriteResult represents the number of inserted entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error, entities of committed transactions stay, or
+	 *                              when a transaction is active.
+	 * @see #bulkInsert(Iterator)
+	 */
+	BulkWriteResult bulkInsert(Iterator<?> entities, int commitInterval) throws ApplicationException;
+	
+	/**
+	 * This method is used to insert a large number of entities of the current tenant through a StatelessSession
+	 * committing every commitInterval entities.
+	 * 
+	 * @param entities       represents the entities to be inserted, the stream is closed afterwards.
+	 * @param commitInterval represents the number of entities inserted per transaction.
+	 * 
+	 * @return BulkWriteResult represents the number of inserted entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error, entities of committed transactions stay, or
+	 *                              when a transaction is active.
+	 * @see #bulkInsert(Iterator, int)
+	 */
+	BulkWriteResult bulkInsert(Stream<?> entities, int commitInterval) throws ApplicationException;
+	
+	/**
+	 * This method is used to update a large number of detached entities of the current tenant through a
+	 * StatelessSession committing every commitInterval entities. Refused inside a transaction.
+	 * 
+	 * @param entities       represents the entities to be updated, consumed once.
+	 * @param commitInterval represents the number of entities updated per transaction.
+	 * 
+	 * @return BulkWriteResult represents the number of updated entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error, entities of committed transactions stay, or
+	 *                              when a transaction is active.
+	 * @see #bulkInsert(Iterator, int)
+	 */
+	BulkWriteResult bulkUpdate(Iterator<?> entities, int commitInterval) throws ApplicationException;
+	
+	/**
+	 * This method is used to update a large number of detached entities of the current tenant through a
+	 * StatelessSession committing every commitInterval entities.
+	 * 
+	 * @param entities       represents the entities to be updated, the stream is closed afterwards.
+	 * @param commitInterval represents the number of entities updated per transaction.
+	 * 
+	 * @return BulkWriteResult represents the number of updated entities and the write throughput.
+	 * @throws ApplicationException throws in case of query or DB Error, entities of committed transactions stay, or
+	 *                              when a transaction is active.
+	 * @see #bulkUpdate(Iterator, int)
+	 */
+	BulkWriteResult bulkUpdate(Stream<?> entities, int commitInterval) throws ApplicationException;
+
+	/**
+	 * This method is used to stream the results of the Criteria object instead of loading them into a list. The rows
+	 * are read forward only with the streaming fetch size and the entities are loaded read only. Every clearInterval
+	 * rows the session is cleared, so entities handed out before are detached. The stream must be consumed inside the
+	 * transaction and closed afterwards. While it is open no other query can be run on the session, as MySQL does not
+	 * allow it on a connection with a streaming result set.
+	 * 
+	 * @param criteria      Represents the criteria object which is going to execute the query.
+	 * @param clearInterval Represents the number of rows after which the session is cleared.
+	 * 
+	 * @return Stream Represents the results of the query, a row with several columns is an Object[].
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 */
+	<V> Stream<V> streamCriteria(Criteria criteria, int clearInterval) throws ApplicationException;
+	
+	/**
+	 * This method is used to stream the results of the Hibernate Query object instead of loading them into a list.
+	 * 
+	 * @param query         Represents the hibernate query object for which the results needs to be fetched.
+	 * @param clearInterval Represents the number of rows after which the session is cleared.
+	 * 
+	 * @return Stream Represents the results of the query, a row with several columns is an Object[].
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 * @see #streamCriteria(Criteria, int)
+	 */
+	<V> Stream<V> streamQuery(Query query, int clearInterval) throws ApplicationException;
+	
+	/**
+	 * This method is used to hand every result of the Criteria object to a callback as soon as it is read.
+	 * 
+	 * @param criteria      Represents the criteria object which is going to execute the query.
+	 * @param clearInterval Represents the number of rows after which the session is cleared.
+	 * @param rowCallback   Represents the callback called for every row.
+	 * 
+	 * @return long Represents the number of rows handed to the callback.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 * @see #streamCriteria(Criteria, int)
+	 */
+	<V> long scrollCriteria(Criteria criteria, int clearInterval, Consumer<V> rowCallback) throws ApplicationException;
+	
+	/**
+	 * This method is used to hand every result of the Hibernate Query object to a callback as soon as it is read.
+	 * 
+	 * @param query         Represents the hibernate query object for which the results needs to be fetched.
+	 * @param clearInterval Represents the number of rows after which the session is cleared.
+	 * @param rowCallback   Represents the callback called for every row.
+	 * 
+	 * @return long Represents the number of rows handed to the callback.
+	 * @throws ApplicationException throws in case of query or DB Error. 
+	 * @see #streamCriteria(Criteria, int)
+	 */
+	<V> long scrollQuery(Query query, int clearInterval, Consumer<V> rowCallback) throws ApplicationException;
+
+	/**
+	 * This method is used to get a page of entities with keyset (seek) pagination. Instead of skipping rows with an
+	 * offset, the page starts right after the sort key of the last row of the previous page, so every page costs the
+	 * same index range read whatever its depth. The identifier is used as tie breaker when the sort property is not
+	 * the identifier. The sort property must be a basic, not null property, ideally indexed together with the
+	 * identifier.
+	 * 
+	 * @param entityClass  Represents the class for which the page needs to be fetched.
+	 * @param sortProperty Represents the property the page is ordered by.
+	 * @param ascending    Represents the sort direction.
+	 * @param cursor       Represents the cursor returned with the previous page, null for the first page.
+	 * @param pageSize     Represents the max number of entities of the page.
+	 * @param restrictions Represents the filters applied to every page.
+	 * 
+	 * @return KeysetPage Represents the entities of the page and the cursor of the next page.
+	 * @throws ApplicationException throws in case of invalid cursor, query or DB Error. 
+	 */
+	<V> KeysetPage<V> getKeysetPage(Class entityClass, String sortProperty, boolean ascending, String cursor, int pageSize,
+			Criterion... restrictions) throws ApplicationException;
+
+	/**
+	 * This method is used to select only the given properties of the entities matching the restrictions, each row
+	 * handed straight to the public constructor of the DTO taking the properties in the given order. The constructor
+	 * is resolved once per DTO class and column types and called through a MethodHandle, there is no per row bean
+	 * introspection.
+	 * 
+	 * @param entityClass  Represents the class of the entities to select from.
+	 * @param dtoClass     Represents the DTO class, with a public constructor taking the properties in order.
+	 * @param properties   Represents the properties to select, in the order of the constructor parameters.
+	 * @param restrictions Represents the filters of the query.
+	 * 
+	 * @return List Represents the DTOs, one per matching entity.
+	 * @throws ApplicationException throws in case of no matching constructor, query or DB Error.
+	 */
+	<D> List<D> getProjections(Class entityClass, Class<D> dtoClass, String[] properties, Criterion... restrictions)
+			throws ApplicationException;
+
+	/**
+	 * This method is used to execute the Criteria object selecting only the given properties into DTOs. The
+	 * projection of the criteria is replaced by the given properties, restrictions, orders, limits and cache settings
+	 * are kept.
+	 * 
+	 * @param criteria   Represents the criteria object which is going to execute the query.
+	 * @param dtoClass   Represents the DTO class, with a public constructor taking the properties in order.
+	 * @param properties Represents the properties to select, in the order of the constructor parameters.
+	 * 
+	 * @return List Represents the DTOs, one per row.
+	 * @throws ApplicationException throws in case of no matching constructor, query or DB Error.
+	 * @see #getProjections(Class, Class, String[], Criterion...)
+	 */
+	<D> List<D> executeProjectionCriteria(Criteria criteria, Class<D> dtoClass, String... properties)
+			throws ApplicationException;
+
+	/**
+	 * This method is used to execute the Criteria object selecting only the given properties into DTOs through the
+	 * query cache, which is bypassed for the tenants whose TenantSettings disable it.
+	 * 
+	 * @param criteria    Represents the criteria object which is going to execute the query.
+	 * @param cacheRegion Represents the query cache region, null for the default query cache region.
+	 * @param dtoClass    Represents the DTO class, with a public constructor taking the properties in order.
+	 * @param properties  Represents the properties to select, in the order of the constructor parameters.
+	 * 
+	 * @return List Represents the DTOs, one per row.
+	 * @throws ApplicationException throws in case of no matching constructor, query or DB Error.
+	 * @see #executeProjectionCriteria(Criteria, Class, String...)
+	 */
+	<D> List<D> executeCachedProjectionCriteria(Criteria criteria, String cacheRegion, Class<D> dtoClass,
+			String... properties) throws ApplicationException;
+
+	/**
+	 * This method is used to execute a HQL or SQL query selecting scalar columns into DTOs, the columns of every row
+	 * handed to the public constructor of the DTO in select order.
+	 * 
+	 * @param query    Represents the hibernate query object selecting the constructor arguments.
+	 * @param dtoClass Represents the DTO class, with a public constructor taking the selected columns in order.
+	 * 
+	 * @return List Represents the DTOs, one per row.
+	 * @throws ApplicationException throws in case of no matching constructor, query or DB Error.
+	 * @see #getProjections(Class, Class, String[], Criterion...)
+	 */
+	<D> List<D> executeProjectionQuery(Query query, Class<D> dtoClass) throws ApplicationException;
 }
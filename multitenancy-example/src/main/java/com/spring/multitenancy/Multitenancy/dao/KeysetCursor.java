@@ -0,0 +1,56 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the sort property and the key values of the last row of a keyset page into an opaque, URL safe cursor.
+ */
+final class KeysetCursor {
+
+    private static final String SEPARATOR = ".";
+
+    private KeysetCursor() {
+    }
+
+    static String encode(final String sortProperty, final String... values) {
+        final StringBuilder cursor = new StringBuilder(encodePart(sortProperty));
+        for (String value : values) {
+            cursor.append(SEPARATOR).append(encodePart(value));
+        }
+        return cursor.toString();
+    }
+
+    /**
+     * @return the key values of the cursor, in the order they were encoded
+     * @throws ApplicationException throws when the cursor is malformed or was issued for another sort property.
+     */
+    static String[] decode(final String cursor, final String sortProperty, final int valueCount)
+            throws ApplicationException {
+        final String[] parts = cursor.split("\\" + SEPARATOR, -1);
+        try {
+            if (parts.length != valueCount + 1 || !sortProperty.equals(decodePart(parts[0]))) {
+                throw new ApplicationException("Cursor was not issued for sort property " + sortProperty,
+                        ErrorCode.INVALID_INPUT);
+            }
+            final String[] values = new String[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                values[i] = decodePart(parts[i + 1]);
+            }
+            return values;
+        } catch (final IllegalArgumentException e) {
+            throw new ApplicationException("Malformed cursor " + cursor, ErrorCode.INVALID_INPUT, e);
+        }
+    }
+
+    private static String encodePart(final String part) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(part.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(final String part) {
+        return new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import java.util.List;
+
+/**
+ * Represents one page of a keyset paginated read together with the cursor of the next page.
+ *
+ * @param <V> Represents the type of the entities of the page.
+ */
+public class KeysetPage<V> {
+
+    private final List<V> items;
+
+    private final String nextCursor;
+
+    public KeysetPage(List<V> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<V> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the opaque cursor to pass for the next page, null when this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
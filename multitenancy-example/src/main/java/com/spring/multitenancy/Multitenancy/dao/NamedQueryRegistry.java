@@ -0,0 +1,212 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.query.spi.ParameterMetadata;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the HQL and SQL queries of the application, registered once by name and translated when registered,
+ * so an invalid query fails the startup instead of a request. Executions through IGenericDAO.getRegisteredQuery
+ * always pass Hibernate the same query string, which keeps its plan cache free of near duplicates, and only bind
+ * parameters. The plans live in the Hibernate query plan cache, sized by hibernate.query.plan_cache_max_size, which
+ * the registration warms; the execution statistics reported per query are the ones Hibernate records.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Dao,name=namedQueryRegistry")
+public class NamedQueryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(NamedQueryRegistry.class);
+
+    private final Map<String, RegisteredQuery> queries = new ConcurrentHashMap<>();
+
+    private final AtomicLong startupTranslationNanos = new AtomicLong();
+
+    private final SessionFactory sessionFactory;
+
+    private final MultitenancyProperties properties;
+
+    @Autowired
+    public NamedQueryRegistry(SessionFactory sessionFactory, MultitenancyProperties properties) {
+        this.sessionFactory = sessionFactory;
+        this.properties = properties;
+    }
+
+    /**
+     * Registers the queries of the multitenancy.dao.named-queries and native-queries properties.
+     */
+    @PostConstruct
+    public void registerConfiguredQueries() throws ApplicationException {
+        for (Map.Entry<String, String> query : properties.getDao().getNamedQueries().entrySet()) {
+            register(query.getKey(), query.getValue());
+        }
+        for (Map.Entry<String, String> query : properties.getDao().getNativeQueries().entrySet()) {
+            registerNative(query.getKey(), query.getValue());
+        }
+        logger.info("Registered {} named queries in {} ms", queries.size(), getStartupTranslationMillis());
+    }
+
+    /**
+     * This method is used to register and translate an HQL query.
+     *
+     * @param name Represents the name the query is executed by.
+     * @param hql  Represents the HQL query.
+     *
+     * @throws ApplicationException throws when the name is taken or the query does not translate.
+     */
+    public void register(String name, String hql) throws ApplicationException {
+        register(name, hql, false);
+    }
+
+    /**
+     * This method is used to register a native SQL query, whose parameters are parsed but whose SQL is only checked
+     * by the database when it is executed.
+     *
+     * @param name Represents the name the query is executed by.
+     * @param sql  Represents the SQL query.
+     *
+     * @throws ApplicationException throws when the name is taken or the parameters do not parse.
+     */
+    public void registerNative(String name, String sql) throws ApplicationException {
+        register(name, sql, true);
+    }
+
+    /**
+     * This method is used to get a registered query.
+     *
+     * @param name Represents the name of the query.
+     *
+     * @return RegisteredQuery Represents the query string and parameters of the query.
+     * @throws ApplicationException throws when no query is registered with the name.
+     */
+    public RegisteredQuery lookup(String name) throws ApplicationException {
+        final RegisteredQuery query = queries.get(name);
+        if (query == null) {
+            throw new ApplicationException("No query registered with name " + name, ErrorCode.INVALID_INPUT);
+        }
+        return query;
+    }
+
+    private void register(String name, String queryString, boolean nativeQuery) throws ApplicationException {
+        final long start = System.nanoTime();
+        final Object plan;
+        try {
+            plan = translate(queryString, nativeQuery);
+        } catch (HibernateException e) {
+            throw new ApplicationException("Invalid query " + name + ": " + queryString, ErrorCode.INVALID_INPUT, e);
+        }
+        final long translationNanos = System.nanoTime() - start;
+        final ParameterMetadata parameters = plan instanceof HQLQueryPlan
+                ? ((HQLQueryPlan) plan).getParameterMetadata() : (ParameterMetadata) plan;
+        final RegisteredQuery query = new RegisteredQuery(name, queryString, nativeQuery,
+                parameters.getNamedParameterNames(), translationNanos);
+        if (queries.putIfAbsent(name, query) != null) {
+            throw new ApplicationException("A query is already registered with name " + name, ErrorCode.INVALID_INPUT);
+        }
+        startupTranslationNanos.addAndGet(translationNanos);
+    }
+
+    private Object translate(String queryString, boolean nativeQuery) {
+        final QueryPlanCache queryPlanCache = ((SessionFactoryImplementor) sessionFactory).getQueryPlanCache();
+        return nativeQuery ? queryPlanCache.getSQLParameterMetadata(queryString)
+                : queryPlanCache.getHQLQueryPlan(queryString, false, Collections.emptyMap());
+    }
+
+    @ManagedAttribute(description = "Number of registered queries")
+    public int getRegisteredQueryCount() {
+        return queries.size();
+    }
+
+    @ManagedAttribute(description = "Time spent translating the queries when they were registered")
+    public long getStartupTranslationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(startupTranslationNanos.get());
+    }
+
+    @ManagedOperation(description = "Translation time in microseconds of every registered query")
+    public Map<String, Long> getTranslationMicros() {
+        Map<String, Long> translationMicros = new TreeMap<>();
+        queries.forEach((name, query) -> translationMicros.put(name,
+                TimeUnit.NANOSECONDS.toMicros(query.translationNanos)));
+        return translationMicros;
+    }
+
+    @ManagedOperation(description = "Executions, rows and execution times of every registered query, "
+            + "recorded by Hibernate when hibernate.generate_statistics is enabled")
+    public Map<String, String> getExecutionStatistics() {
+        final Statistics statistics = sessionFactory.getStatistics();
+        Map<String, String> executions = new TreeMap<>();
+        queries.forEach((name, query) -> {
+            QueryStatistics execution = statistics.getQueryStatistics(query.getQueryString());
+            executions.put(name, "executions=" + execution.getExecutionCount()
+                    + ", rows=" + execution.getExecutionRowCount()
+                    + ", avgMillis=" + execution.getExecutionAvgTime()
+                    + ", maxMillis=" + execution.getExecutionMaxTime());
+        });
+        return executions;
+    }
+
+    /**
+     * Represents a registered query.
+     */
+    public static final class RegisteredQuery {
+
+        private final String name;
+
+        private final String queryString;
+
+        private final boolean nativeQuery;
+
+        private final Set<String> parameterNames;
+
+        private final long translationNanos;
+
+        private RegisteredQuery(String name, String queryString, boolean nativeQuery, Set<String> parameterNames,
+                                long translationNanos) {
+            this.name = name;
+            this.queryString = queryString;
+            this.nativeQuery = nativeQuery;
+            this.parameterNames = Collections.unmodifiableSet(new HashSet<>(parameterNames));
+            this.translationNanos = translationNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getQueryString() {
+            return queryString;
+        }
+
+        public boolean isNativeQuery() {
+            return nativeQuery;
+        }
+
+        public Set<String> getParameterNames() {
+            return parameterNames;
+        }
+    }
+}
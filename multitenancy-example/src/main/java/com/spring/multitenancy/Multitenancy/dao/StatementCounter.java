@@ -0,0 +1,27 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on the current thread, so DaoMetrics can attribute them to the DAO
+ * operation that caused them. Registered as the session factory statement inspector.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = -6518470612339052094L;
+
+    private static final ThreadLocal<long[]> preparedStatements = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(final String sql) {
+        preparedStatements.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * @return the number of statements prepared so far on the current thread
+     */
+    static long current() {
+        return preparedStatements.get()[0];
+    }
+}
@@ -0,0 +1,327 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.config.TenantContext;
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs a DAO callback against many tenant schemas in parallel, for the cross tenant jobs such as counts and reports.
+ * At most fan-out-parallelism tenants run at the same time on the AsyncDaoExecutor, each in its own transaction
+ * with the tenant bound, and the next tenant starts as soon as one completes, so the wall time is the sum of the
+ * tenant latencies divided by the parallelism instead of their sum. A failing tenant is reported in its
+ * TenantResult and does not cancel the others. A tenant the saturated AsyncDaoExecutor rejects is not failed: it is
+ * queued again and the fan-out backs off until one of its tenants completes or the retry delay elapses.
+ */
+@Component
+public class TenantFanOut {
+
+    private static final long MIN_RETRY_DELAY_MS = 10;
+
+    private static final long MAX_RETRY_DELAY_MS = 1000;
+
+    @Autowired
+    AsyncDaoExecutor asyncDaoExecutor;
+
+    @Autowired
+    MultitenancyProperties properties;
+
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void start() {
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-fan-out-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * This method is used to run a callback against every tenant.
+     *
+     * @param tenants  Represents the tenant identifiers.
+     * @param callback Represents the DAO work, called with the tenant bound to the TenantContext.
+     * @param readOnly Represents whether the transactions are read only.
+     *
+     * @return CompletableFuture Represents the results in the order of the tenants, completed once every tenant is.
+     */
+    public <V> CompletableFuture<List<TenantResult<V>>> fanOut(final Collection<String> tenants,
+                                                               final Function<String, V> callback,
+                                                               final boolean readOnly) {
+        return fanOut(tenants, callback, readOnly, result -> {
+        });
+    }
+
+    /**
+     * This method is used to run a callback against every tenant, handing each result over as it completes.
+     *
+     * @param tenants  Represents the tenant identifiers.
+     * @param callback Represents the DAO work, called with the tenant bound to the TenantContext.
+     * @param readOnly Represents whether the transactions are read only.
+     * @param onResult Represents the consumer of the results in completion order, called on the worker threads.
+     *
+     * @return CompletableFuture Represents the results in the order of the tenants, completed once every tenant is.
+     */
+    public <V> CompletableFuture<List<TenantResult<V>>> fanOut(final Collection<String> tenants,
+                                                               final Function<String, V> callback,
+                                                               final boolean readOnly,
+                                                               final Consumer<TenantResult<V>> onResult) {
+        return fanOut(tenants, callback, work -> asyncDaoExecutor.submit(work, readOnly), parallelism(), onResult);
+    }
+
+    /**
+     * This method is used to run a callback which takes its own connections, or manages its own transactions,
+     * against every tenant. Unlike fanOut the workers hold no connection of their own while the callback runs.
+     *
+     * @param tenants     Represents the tenant identifiers.
+     * @param callback    Represents the work, called with the tenant bound to the TenantContext.
+     * @param parallelism Represents the max number of tenants run at the same time, 0 for the fan-out-parallelism.
+     *
+     * @return CompletableFuture Represents the results in the order of the tenants, completed once every tenant is.
+     */
+    public <V> CompletableFuture<List<TenantResult<V>>> fanOutWithoutTransaction(final Collection<String> tenants,
+                                                                                 final Function<String, V> callback,
+                                                                                 final int parallelism) {
+        return fanOut(tenants, callback, asyncDaoExecutor::submitWithoutTransaction,
+                parallelism > 0 ? parallelism : parallelism(), result -> {
+                });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <V> CompletableFuture<List<TenantResult<V>>> fanOut(final Collection<String> tenants,
+            final Function<String, V> callback, final Function<Supplier<V>, CompletableFuture<V>> submitter,
+            final int parallelism, final Consumer<TenantResult<V>> onResult) {
+        final List<String> tenantList = new ArrayList<>(tenants);
+        final TenantResult<V>[] results = new TenantResult[tenantList.size()];
+        final CompletableFuture<List<TenantResult<V>>> all = new CompletableFuture<>();
+        if (tenantList.isEmpty()) {
+            all.complete(new ArrayList<>());
+            return all;
+        }
+        new FanOut<>(tenantList, callback, submitter, onResult, results, all, parallelism).dispatch();
+        return all;
+    }
+
+    /**
+     * @return the max number of tenants a fan-out runs at the same time
+     */
+    int parallelism() {
+        final int parallelism = properties.getDao().getFanOutParallelism();
+        return parallelism > 0 ? parallelism : asyncDaoExecutor.getThreads();
+    }
+
+    /**
+     * State of one fan-out. Tenants are started by a single dispatching thread at a time, in a loop bounded by the
+     * parallelism: a completion on another thread or inline, as a rejected submission completes at once, only marks
+     * the fan-out to be dispatched again, so starting the next tenants never recurses.
+     */
+    private final class FanOut<V> {
+
+        private final List<String> tenants;
+
+        private final Deque<Integer> pending;
+
+        private final Function<String, V> callback;
+
+        private final Function<Supplier<V>, CompletableFuture<V>> submitter;
+
+        private final Consumer<TenantResult<V>> onResult;
+
+        private final TenantResult<V>[] results;
+
+        private final CompletableFuture<List<TenantResult<V>>> all;
+
+        private final AtomicInteger remaining;
+
+        private final int parallelism;
+
+        // guarded by this
+        private int running;
+
+        private boolean dispatching;
+
+        private boolean dispatchAgain;
+
+        private boolean backingOff;
+
+        private long retryDelayMs = MIN_RETRY_DELAY_MS;
+
+        private FanOut(List<String> tenants, Function<String, V> callback,
+                       Function<Supplier<V>, CompletableFuture<V>> submitter,
+                       Consumer<TenantResult<V>> onResult, TenantResult<V>[] results,
+                       CompletableFuture<List<TenantResult<V>>> all, int parallelism) {
+            this.tenants = tenants;
+            this.pending = new ArrayDeque<>(tenants.size());
+            for (int i = 0; i < tenants.size(); i++) {
+                pending.add(i);
+            }
+            this.callback = callback;
+            this.submitter = submitter;
+            this.onResult = onResult;
+            this.results = results;
+            this.all = all;
+            this.remaining = new AtomicInteger(tenants.size());
+            this.parallelism = Math.max(1, parallelism);
+        }
+
+        /**
+         * Starts pending tenants until parallelism of them are running, unless the fan-out backs off.
+         */
+        void dispatch() {
+            synchronized (this) {
+                if (dispatching) {
+                    dispatchAgain = true;
+                    return;
+                }
+                dispatching = true;
+            }
+            while (true) {
+                final int index;
+                synchronized (this) {
+                    if (pending.isEmpty() || running >= parallelism || backingOff) {
+                        if (!dispatchAgain) {
+                            dispatching = false;
+                            return;
+                        }
+                        dispatchAgain = false;
+                        continue;
+                    }
+                    index = pending.poll();
+                    running++;
+                }
+                start(index);
+            }
+        }
+
+        private void start(int index) {
+            final String tenant = tenants.get(index);
+            final long[] elapsedNanos = new long[1];
+            final String previous = TenantContext.getTenant();
+            TenantContext.setTenant(tenant);
+            CompletableFuture<V> future;
+            try {
+                future = submitter.apply(() -> {
+                    final long start = System.nanoTime();
+                    try {
+                        return callback.apply(tenant);
+                    } finally {
+                        elapsedNanos[0] = System.nanoTime() - start;
+                    }
+                });
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            } finally {
+                TenantContext.setTenant(previous);
+            }
+            future.whenComplete((value, error) -> {
+                if (isRejection(error)) {
+                    backOff(index, error);
+                    return;
+                }
+                try {
+                    complete(index, new TenantResult<>(tenant, value, unwrap(error), elapsedNanos[0]));
+                } finally {
+                    synchronized (this) {
+                        running--;
+                        backingOff = false;
+                        retryDelayMs = MIN_RETRY_DELAY_MS;
+                    }
+                    dispatch();
+                }
+            });
+        }
+
+        /**
+         * Queues a rejected tenant again and retries after a delay doubling up to MAX_RETRY_DELAY_MS, or earlier
+         * when a running tenant completes and frees a worker.
+         */
+        private void backOff(int index, Throwable rejection) {
+            final long delayMs;
+            synchronized (this) {
+                running--;
+                pending.addFirst(index);
+                if (backingOff) {
+                    return;
+                }
+                backingOff = true;
+                delayMs = retryDelayMs;
+                retryDelayMs = Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+            }
+            try {
+                retryScheduler.schedule(() -> {
+                    synchronized (this) {
+                        backingOff = false;
+                    }
+                    dispatch();
+                }, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shutting down, fail the tenants which were not started
+                failPending(unwrap(rejection));
+            }
+        }
+
+        private void failPending(Throwable error) {
+            while (true) {
+                final Integer index;
+                synchronized (this) {
+                    index = pending.poll();
+                }
+                if (index == null) {
+                    return;
+                }
+                complete(index, new TenantResult<>(tenants.get(index), null, error, 0));
+            }
+        }
+
+        private void complete(int index, TenantResult<V> result) {
+            results[index] = result;
+            try {
+                onResult.accept(result);
+            } finally {
+                if (remaining.decrementAndGet() == 0) {
+                    all.complete(Arrays.asList(results));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the AsyncDaoExecutor refused the submission because its queue was full, as opposed to a
+     *         callback failing
+     */
+    private static boolean isRejection(Throwable error) {
+        final Throwable cause = unwrap(error);
+        return cause instanceof ApplicationException && cause.getCause() instanceof RejectedExecutionException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,60 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the outcome of a fan-out callback for one tenant, either its value or the error it failed with.
+ *
+ * @param <V> Represents the type of the value of the callback.
+ */
+public class TenantResult<V> {
+
+    private final String tenant;
+
+    private final V value;
+
+    private final Throwable error;
+
+    private final long elapsedNanos;
+
+    TenantResult(String tenant, V value, Throwable error, long elapsedNanos) {
+        this.tenant = tenant;
+        this.value = value;
+        this.error = error;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * @return the value of the callback, null when it failed
+     */
+    public V getValue() {
+        return value;
+    }
+
+    /**
+     * @return the error of the callback, null when it succeeded
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the time the callback ran for, 0 when it was rejected before running
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "TenantResult{tenant='" + tenant + "', " + (isSuccess() ? "value=" + value : "error=" + error) + '}';
+    }
+}
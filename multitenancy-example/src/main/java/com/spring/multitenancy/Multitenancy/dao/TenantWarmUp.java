@@ -0,0 +1,202 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.config.TenantRegistry;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the tenants up once the context is refreshed, which the embedded container waits for before it accepts
+ * requests. For each warmed tenant, in parallel through TenantFanOut: the configured number of connections are
+ * opened at once and handed back, which opens a PER_TENANT pool and leaves them idle, then the first rows of the
+ * entity of every DAO are read into the second-level cache and the configured registered queries are run. The
+ * connections are opened by a fan-out without transaction, whose workers hold no connection of their own, running
+ * no more tenants at the same time than the fan-out parallelism has connections for, so the workers cannot all wait
+ * for a connection another one holds. The warm-up stops waiting after its timeout, so startup time stays bounded
+ * whatever the number of tenants.
+ */
+@Component
+@ManagedResource(objectName = "multitenancy:type=Dao,name=tenantWarmUp")
+public class TenantWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantWarmUp.class);
+
+    @Autowired
+    MultitenancyProperties properties;
+
+    @Autowired
+    TenantRegistry tenantRegistry;
+
+    @Autowired
+    TenantFanOut tenantFanOut;
+
+    @Autowired
+    MultiTenantConnectionProvider connectionProvider;
+
+    @Autowired
+    List<IGenericDAO<?, ?>> daos;
+
+    private volatile long lastDurationMillis;
+
+    private volatile Map<String, String> lastFailures = Collections.emptyMap();
+
+    private volatile int lastWarmedTenants;
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        if (properties.getWarmup().isEnabled() && event.getApplicationContext().getParent() == null) {
+            warmUp();
+        }
+    }
+
+    /**
+     * This method is used to warm the configured tenants up.
+     *
+     * @return int Represents the number of tenants warmed up without error within the timeout.
+     */
+    @ManagedOperation(description = "Warms the configured tenants up again")
+    public int warmUp() {
+        final MultitenancyProperties.Warmup warmup = properties.getWarmup();
+        final List<String> tenants = selectTenants(warmup);
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(warmup.getTimeoutMs());
+        final Map<String, String> failures = new TreeMap<>();
+        int warmed = 0;
+        try {
+            final List<String> connected = new ArrayList<>(tenants.size());
+            if (warmup.getConnectionsPerTenant() > 0) {
+                final int parallelism = Math.max(1, tenantFanOut.parallelism() / warmup.getConnectionsPerTenant());
+                final List<TenantResult<Integer>> opened = tenantFanOut.fanOutWithoutTransaction(tenants,
+                        tenant -> openConnections(tenant, warmup.getConnectionsPerTenant()), parallelism)
+                        .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                for (TenantResult<Integer> result : opened) {
+                    if (result.isSuccess()) {
+                        connected.add(result.getTenant());
+                    } else {
+                        failures.put(result.getTenant(), String.valueOf(result.getError()));
+                    }
+                }
+            } else {
+                connected.addAll(tenants);
+            }
+            final List<TenantResult<Integer>> results = tenantFanOut.fanOut(connected, this::warmUp, true)
+                    .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            for (TenantResult<Integer> result : results) {
+                if (result.isSuccess()) {
+                    warmed++;
+                } else {
+                    failures.put(result.getTenant(), String.valueOf(result.getError()));
+                }
+            }
+        } catch (TimeoutException e) {
+            logger.warn("Warm-up did not complete within {} ms, accepting traffic anyway", warmup.getTimeoutMs());
+        } catch (Exception e) {
+            logger.warn("Warm-up failed", e);
+        }
+        lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastWarmedTenants = warmed;
+        lastFailures = Collections.unmodifiableMap(failures);
+        logger.info("Warmed up {} of {} tenants in {} ms", warmed, tenants.size(), lastDurationMillis);
+        if (!failures.isEmpty()) {
+            logger.warn("Warm-up failed for tenants {}", failures);
+        }
+        return warmed;
+    }
+
+    /**
+     * The configured tenants first, then the other registered tenants in alphabetical order, up to max-tenants.
+     */
+    private List<String> selectTenants(MultitenancyProperties.Warmup warmup) {
+        final Set<String> tenants = new LinkedHashSet<>(warmup.getTenants());
+        for (String tenant : new TreeSet<>(tenantRegistry.getTenants())) {
+            if (tenants.size() >= warmup.getMaxTenants()) {
+                break;
+            }
+            tenants.add(tenant);
+        }
+        final List<String> selected = new ArrayList<>(tenants);
+        return selected.size() > warmup.getMaxTenants() ? selected.subList(0, warmup.getMaxTenants()) : selected;
+    }
+
+    /**
+     * Runs on a fan-out worker with the tenant bound, in its transaction.
+     *
+     * @return the number of rows read
+     */
+    private Integer warmUp(String tenant) {
+        final MultitenancyProperties.Warmup warmup = properties.getWarmup();
+        int rows = 0;
+        for (IGenericDAO<?, ?> dao : daos) {
+            if (warmup.getMaxEntities() > 0) {
+                rows += dao.executeCriteria(dao.getCriteria().setMaxResults(warmup.getMaxEntities())).size();
+            }
+        }
+        if (!daos.isEmpty()) {
+            for (String query : warmup.getQueries()) {
+                rows += daos.get(0).executeRegisteredQuery(query, Collections.emptyMap()).size();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Runs on a fan-out worker without transaction.
+     *
+     * @return the number of connections opened
+     */
+    private Integer openConnections(String tenant, int count) {
+        final List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                connections.add(connectionProvider.getConnection(tenant));
+            }
+            return connections.size();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open the connections of tenant " + tenant, e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connectionProvider.releaseConnection(tenant, connection);
+                } catch (SQLException e) {
+                    logger.debug("openConnections: failed to release warm-up connection", e);
+                }
+            }
+        }
+    }
+
+    @ManagedAttribute(description = "Duration of the last warm-up")
+    public long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    @ManagedAttribute(description = "Number of tenants warmed up by the last warm-up")
+    public int getLastWarmedTenants() {
+        return lastWarmedTenants;
+    }
+
+    @ManagedAttribute(description = "Tenants the last warm-up failed for, with their error")
+    public Map<String, String> getLastFailures() {
+        return lastFailures;
+    }
+}
@@ -1,5 +1,9 @@
 package com.spring.multitenancy.Multitenancy.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -8,6 +12,8 @@ import java.io.Serializable;
 
 @Entity
 @Table(name = "CLIENT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 public class Client implements Serializable {
 
     private String clientId;
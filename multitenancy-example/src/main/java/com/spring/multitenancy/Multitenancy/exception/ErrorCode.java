@@ -19,7 +19,8 @@ public enum ErrorCode implements IErrorCode {
     ACCOUNT_LOCKED("account.locked"),
     FILE_EMPTY("2000"),
     BASE_DB_ERROR("server.error"),
-    ROLES_NOT_FOUND("roles.not.found");
+    ROLES_NOT_FOUND("roles.not.found"),
+    TOO_MANY_REQUESTS("too.many.requests");
 
     private final String code;
 
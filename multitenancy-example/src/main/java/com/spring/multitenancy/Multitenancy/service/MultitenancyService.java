@@ -1,15 +1,20 @@
 package com.spring.multitenancy.Multitenancy.service;
 
+import com.spring.multitenancy.Multitenancy.dao.AsyncDaoExecutor;
+import com.spring.multitenancy.Multitenancy.dao.AsyncGenericDAO;
 import com.spring.multitenancy.Multitenancy.dao.ClientDAO;
+import com.spring.multitenancy.Multitenancy.dao.TenantFanOut;
+import com.spring.multitenancy.Multitenancy.dao.TenantResult;
 import com.spring.multitenancy.Multitenancy.dto.ClientDTO;
 import com.spring.multitenancy.Multitenancy.entity.Client;
-import org.hibernate.transform.AliasToBeanResultTransformer;
-import org.hibernate.transform.Transformers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service("multitenancyService")
 public class MultitenancyService {
@@ -17,9 +22,36 @@ public class MultitenancyService {
     @Autowired
     ClientDAO clientDAO;
 
+    @Autowired
+    AsyncDaoExecutor asyncDaoExecutor;
+
+    @Autowired
+    TenantFanOut tenantFanOut;
+
+    private AsyncGenericDAO<Client, String> asyncClientDAO;
+
+    @PostConstruct
+    public void init() {
+        asyncClientDAO = new AsyncGenericDAO<>(clientDAO, asyncDaoExecutor);
+    }
+
     @Transactional
     public ClientDTO getClientInfo() {
-        Client client =(Client) clientDAO.getCriteria(Client.class).list().get(0);
-        return new ClientDTO(client.getClientId(), client.getDescription());
+        return clientDAO.executeCachedProjectionCriteria(clientDAO.getCriteria(Client.class).setMaxResults(1),
+                "query.client", ClientDTO.class, "clientId", "description").get(0);
+    }
+
+    public CompletableFuture<ClientDTO> getClientInfoAsync() {
+        return asyncClientDAO.executeCachedProjectionCriteria(dao -> dao.getCriteria(Client.class).setMaxResults(1),
+                "query.client", ClientDTO.class, "clientId", "description").thenApply(clients -> clients.get(0));
+    }
+
+    /**
+     * Counts the clients of every tenant schema in parallel, a failing tenant is reported in its result.
+     */
+    public CompletableFuture<List<TenantResult<Long>>> countClients(Collection<String> tenants) {
+        return tenantFanOut.fanOut(tenants,
+                tenant -> clientDAO.<Long>executeUniqueResultQuery(clientDAO.getQueryObject("select count(c) from Client c")),
+                true);
     }
 }
@@ -0,0 +1,132 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TenantConnectionPoolsTest {
+
+    private static final int THREADS = 8;
+
+    private static final int CHECKOUTS = 300;
+
+    private org.apache.tomcat.jdbc.pool.DataSource shared;
+
+    private TenantConnectionPools pools;
+
+    @Before
+    public void setUp() {
+        final PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setUrl("jdbc:h2:mem:tenant-pools;DB_CLOSE_DELAY=-1");
+        poolProperties.setDriverClassName("org.h2.Driver");
+        poolProperties.setUsername("sa");
+        poolProperties.setPassword("");
+        shared = new org.apache.tomcat.jdbc.pool.DataSource(poolProperties);
+
+        pools = new TenantConnectionPools();
+        pools.dataSource = shared;
+        pools.properties = new MultitenancyProperties();
+        pools.properties.getConnection().setMode(MultitenancyProperties.Connection.Mode.PER_TENANT);
+        final MultitenancyProperties.PerTenant perTenant = pools.properties.getConnection().getPerTenant();
+        // every pool without a checked out connection is idle, the evictor is only run by the tests
+        perTenant.setPoolIdleTimeout(0);
+        perTenant.setEvictionInterval((int) TimeUnit.HOURS.toMillis(1));
+        perTenant.setMaxPools(2);
+        pools.tenantRegistry = mock(TenantRegistry.class);
+        when(pools.tenantRegistry.getSettings(anyString()))
+                .thenReturn(new TenantSettings("t", THREADS, THREADS, true, 0, 0, 0));
+        pools.start();
+    }
+
+    @After
+    public void tearDown() {
+        pools.stop();
+        shared.close();
+    }
+
+    @Test
+    public void poolWithACheckedOutConnectionIsNotEvicted() throws Exception {
+        try (Connection connection = pools.getConnection("t1")) {
+            pools.evictIdlePools();
+
+            assertEquals(1, pools.getPoolCount());
+            assertEquals(0, pools.getEvictedPools());
+            assertTrue(connection.isValid(1));
+        }
+
+        pools.evictIdlePools();
+        assertEquals(0, pools.getPoolCount());
+        assertEquals(1, pools.getEvictedPools());
+    }
+
+    @Test
+    public void checkoutRacingEvictionNeverLendsFromAClosedPool() throws Exception {
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final AtomicBoolean done = new AtomicBoolean();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        executor.submit(() -> {
+            startSignal.await();
+            while (!done.get()) {
+                pools.evictIdlePools();
+            }
+            return null;
+        });
+        final CountDownLatch finished = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            // three tenants for two pools, so checkouts also evict the least recently used pool
+            final String tenant = "t" + (t % 3);
+            executor.submit(() -> {
+                try {
+                    startSignal.await();
+                    // a fast run can end before the first eviction, which would leave the race untested
+                    for (int i = 0; i < CHECKOUTS || pools.getEvictedPools() == 0; i++) {
+                        try (Connection connection = pools.getConnection(tenant);
+                             Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                            assertTrue("pool of " + tenant + " closed while its connection is checked out",
+                                    pools.getPoolUsage().containsKey(tenant));
+                        } catch (SQLException e) {
+                            // both pools have checked out connections, so none can be evicted for a third tenant
+                            if (!e.getMessage().startsWith("Tenant pool limit")) {
+                                failures.add(e);
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    finished.countDown();
+                }
+                return null;
+            });
+        }
+        startSignal.countDown();
+        assertTrue(finished.await(60, TimeUnit.SECONDS));
+        done.set(true);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals("[]", failures.toString());
+        assertTrue(pools.getEvictedPools() > 0);
+        assertTrue(pools.getPoolCount() <= 2);
+    }
+}
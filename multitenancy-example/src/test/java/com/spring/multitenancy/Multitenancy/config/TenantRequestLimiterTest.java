@@ -0,0 +1,133 @@
+package com.spring.multitenancy.Multitenancy.config;
+
+import com.spring.multitenancy.Multitenancy.Constant;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TenantRequestLimiterTest {
+
+    private static final long T0 = 1_000_000_000L;
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private TenantRequestLimiter limiter;
+
+    private final Set<String> tenants = new HashSet<>(Arrays.asList(Constant.DEFAULT_SCHEMA, "t1", "t2"));
+
+    @Before
+    public void setUp() {
+        limiter = new TenantRequestLimiter();
+        limiter.tenantRegistry = mock(TenantRegistry.class);
+        when(limiter.tenantRegistry.getSettings(anyString())).thenReturn(settings(0, 0, 1));
+        when(limiter.tenantRegistry.getTenants()).thenReturn(tenants);
+        when(limiter.tenantRegistry.getRefreshes()).thenReturn(1L);
+    }
+
+    @Test
+    public void rateAcceptsTheBurstThenOneRequestPerEmissionInterval() {
+        // 10 requests per second, so one every 100 ms, with a burst of 3
+        final TenantRequestLimiter.TenantLimits limits = new TenantRequestLimiter.TenantLimits(settings(10, 3, 0), T0);
+
+        assertTrue(limits.tryAcquireRate(T0));
+        assertTrue(limits.tryAcquireRate(T0));
+        assertTrue(limits.tryAcquireRate(T0));
+        assertFalse(limits.tryAcquireRate(T0));
+        assertEquals(100 * MILLI, limits.nanosUntilNextPermit(T0));
+
+        assertFalse(limits.tryAcquireRate(T0 + 99 * MILLI));
+        assertTrue(limits.tryAcquireRate(T0 + 100 * MILLI));
+        assertFalse(limits.tryAcquireRate(T0 + 100 * MILLI));
+    }
+
+    @Test
+    public void rateDoesNotSaveUpMoreThanTheBurstWhileIdle() {
+        final TenantRequestLimiter.TenantLimits limits = new TenantRequestLimiter.TenantLimits(settings(10, 3, 0), T0);
+        final long later = T0 + TimeUnit.MINUTES.toNanos(1);
+
+        assertTrue(limits.tryAcquireRate(later));
+        assertTrue(limits.tryAcquireRate(later));
+        assertTrue(limits.tryAcquireRate(later));
+        assertFalse(limits.tryAcquireRate(later));
+    }
+
+    @Test
+    public void rateWithoutLimitAcceptsEveryRequest() {
+        final TenantRequestLimiter.TenantLimits limits = new TenantRequestLimiter.TenantLimits(settings(0, 0, 0), T0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limits.tryAcquireRate(T0));
+        }
+        assertEquals(0, limits.nanosUntilNextPermit(T0));
+    }
+
+    @Test
+    public void bulkheadRejectsUntilThePermitIsReleased() {
+        final TenantRequestLimiter.Permit permit = limiter.tryAcquire("t1");
+        assertEquals(TenantRequestLimiter.Admission.ACCEPTED, permit.getAdmission());
+        assertEquals(TenantRequestLimiter.Admission.BULKHEAD_FULL, limiter.tryAcquire("t1").getAdmission());
+        assertEquals(TenantRequestLimiter.Admission.ACCEPTED, limiter.tryAcquire("t2").getAdmission());
+
+        permit.release();
+        permit.release();
+
+        assertEquals(TenantRequestLimiter.Admission.ACCEPTED, limiter.tryAcquire("t1").getAdmission());
+        assertEquals(TenantRequestLimiter.Admission.BULKHEAD_FULL, limiter.tryAcquire("t1").getAdmission());
+    }
+
+    @Test
+    public void releaseAfterResetDoesNotRaiseTheRecreatedBulkhead() {
+        final TenantRequestLimiter.Permit inProgress = limiter.tryAcquire("t1");
+        assertEquals(TenantRequestLimiter.Admission.ACCEPTED, inProgress.getAdmission());
+
+        limiter.reset();
+        final TenantRequestLimiter.Permit afterReset = limiter.tryAcquire("t1");
+        assertEquals(TenantRequestLimiter.Admission.ACCEPTED, afterReset.getAdmission());
+        inProgress.release();
+
+        assertEquals(TenantRequestLimiter.Admission.BULKHEAD_FULL, limiter.tryAcquire("t1").getAdmission());
+        assertEquals("accepted=1, rateLimited=0, bulkheadFull=1, inProgress=1",
+                limiter.getTenantStatistics().get("t1"));
+    }
+
+    @Test
+    public void unknownTenantsShareTheLimitsOfTheDefaultSchema() {
+        assertEquals(TenantRequestLimiter.Admission.ACCEPTED, limiter.tryAcquire("made-up-1").getAdmission());
+        assertEquals(TenantRequestLimiter.Admission.BULKHEAD_FULL, limiter.tryAcquire("made-up-2").getAdmission());
+        assertEquals(TenantRequestLimiter.Admission.BULKHEAD_FULL, limiter.tryAcquire(null).getAdmission());
+
+        assertEquals(1, limiter.getTenantStatistics().size());
+        assertEquals("accepted=1, rateLimited=0, bulkheadFull=2, inProgress=1",
+                limiter.getTenantStatistics().get(Constant.DEFAULT_SCHEMA));
+    }
+
+    @Test
+    public void limitsOfTenantsRemovedByARefreshAreDropped() {
+        limiter.tryAcquire("t1");
+        limiter.tryAcquire("t2");
+        assertEquals(2, limiter.getTenantStatistics().size());
+
+        tenants.remove("t2");
+        when(limiter.tenantRegistry.getRefreshes()).thenReturn(2L);
+        limiter.tryAcquire("t1");
+
+        assertEquals(1, limiter.getTenantStatistics().size());
+        assertEquals("accepted=1, rateLimited=0, bulkheadFull=1, inProgress=1",
+                limiter.getTenantStatistics().get("t1"));
+    }
+
+    private static TenantSettings settings(double rateLimit, int burst, int maxConcurrentRequests) {
+        return new TenantSettings("t", 10, 10, true, rateLimit, burst, maxConcurrentRequests);
+    }
+}
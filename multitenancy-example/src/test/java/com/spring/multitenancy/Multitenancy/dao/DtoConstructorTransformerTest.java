@@ -0,0 +1,77 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class DtoConstructorTransformerTest {
+
+    public static class Row {
+
+        final String constructor;
+
+        final Object value;
+
+        public Row(String name, int count) {
+            constructor = "int";
+            value = count;
+        }
+
+        public Row(String name, String label) {
+            constructor = "String";
+            value = label;
+        }
+    }
+
+    @Test
+    public void nullInTheFirstRowDoesNotFixTheConstructor() throws ApplicationException {
+        final DtoConstructorTransformer transformer = new DtoConstructorTransformer(Row.class, null);
+
+        final Row first = (Row) transformer.transformTuple(new Object[]{"a", null}, null);
+        final Row second = (Row) transformer.transformTuple(new Object[]{"b", 2}, null);
+
+        assertEquals("String", first.constructor);
+        assertNull(first.value);
+        assertEquals("int", second.constructor);
+        assertEquals(2, second.value);
+    }
+
+    @Test
+    public void columnTypeIsTakenFromItsFirstNonNullValue() throws ApplicationException {
+        final DtoConstructorTransformer transformer = new DtoConstructorTransformer(Row.class, null);
+
+        transformer.transformTuple(new Object[]{"a", "x"}, null);
+        final Row row = (Row) transformer.transformTuple(new Object[]{"b", null}, null);
+
+        assertEquals("String", row.constructor);
+    }
+
+    @Test
+    public void valueOfAnotherTypeIsReportedAsApplicationException() throws ApplicationException {
+        final DtoConstructorTransformer transformer = new DtoConstructorTransformer(Row.class, null);
+        transformer.transformTuple(new Object[]{"a", 1}, null);
+
+        assertInvalid(transformer, new Object[]{"b", "x"});
+    }
+
+    @Test
+    public void nullForAPrimitiveParameterIsReportedAsApplicationException() throws ApplicationException {
+        final DtoConstructorTransformer transformer =
+                new DtoConstructorTransformer(Row.class, new Class<?>[]{String.class, Integer.class});
+
+        assertInvalid(transformer, new Object[]{"a", null});
+    }
+
+    private static void assertInvalid(DtoConstructorTransformer transformer, Object[] tuple) {
+        try {
+            transformer.transformTuple(tuple, null);
+            fail("row accepted");
+        } catch (final ApplicationException e) {
+            assertEquals(ErrorCode.INVALID_INPUT, e.getErrorCode());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.config.MultitenancyProperties;
+import com.spring.multitenancy.Multitenancy.entity.Client;
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.criterion.Restrictions;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GenericDAOKeysetTest {
+
+    private static SessionFactory sessionFactory;
+
+    private ClientDAO dao;
+
+    private Transaction transaction;
+
+    @BeforeClass
+    public static void createSessionFactory() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Client.class)
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:keyset;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.DRIVER, "org.h2.Driver")
+                .setProperty(AvailableSettings.USER, "sa")
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.CURRENT_SESSION_CONTEXT_CLASS, "thread")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+        // ordered by description then id: k2(a), k1(b), k3(b), k5(b), k4(c)
+        final Transaction insert = sessionFactory.getCurrentSession().beginTransaction();
+        for (String[] row : new String[][]{{"k5", "b"}, {"k1", "b"}, {"k3", "b"}, {"k2", "a"}, {"k4", "c"}}) {
+            final Client client = new Client();
+            client.setClientId(row[0]);
+            client.setDescription(row[1]);
+            sessionFactory.getCurrentSession().save(client);
+        }
+        insert.commit();
+    }
+
+    @AfterClass
+    public static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    @Before
+    public void setUp() {
+        dao = new ClientDAO();
+        dao.setSessionFactory(sessionFactory);
+        dao.setProperties(new MultitenancyProperties());
+        transaction = sessionFactory.getCurrentSession().beginTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        transaction.rollback();
+    }
+
+    @Test
+    public void equalSortValuesAreOrderedAndSplitByTheIdentifier() {
+        assertEquals(Arrays.asList(Arrays.asList("k2", "k1"), Arrays.asList("k3", "k5"), Arrays.asList("k4")),
+                pages("description", true, 2));
+        assertEquals(Arrays.asList(Arrays.asList("k4", "k5"), Arrays.asList("k3", "k1"), Arrays.asList("k2")),
+                pages("description", false, 2));
+    }
+
+    @Test
+    public void pageEndingOnATieResumesWithinTheTie() {
+        assertEquals(Arrays.asList(Arrays.asList("k2", "k1", "k3"), Arrays.asList("k5", "k4")),
+                pages("description", true, 3));
+    }
+
+    @Test
+    public void lastPageHasNoCursorWhenTheRowsFillItExactly() {
+        final KeysetPage<Client> all = dao.getKeysetPage(Client.class, "clientId", true, null, 5);
+        assertEquals(5, all.getItems().size());
+        assertFalse(all.hasNext());
+
+        final KeysetPage<Client> first = dao.getKeysetPage(Client.class, "clientId", true, null, 4);
+        assertEquals(4, first.getItems().size());
+        assertTrue(first.hasNext());
+        final KeysetPage<Client> last = dao.getKeysetPage(Client.class, "clientId", true, first.getNextCursor(), 4);
+        assertEquals(Arrays.asList("k5"), ids(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    public void restrictionsApplyToEveryPage() {
+        final KeysetPage<Client> first = dao.getKeysetPage(Client.class, "clientId", true, null, 1,
+                Restrictions.eq("description", "b"));
+        final KeysetPage<Client> second = dao.getKeysetPage(Client.class, "clientId", true, first.getNextCursor(), 2,
+                Restrictions.eq("description", "b"));
+
+        assertEquals(Arrays.asList("k1"), ids(first));
+        assertEquals(Arrays.asList("k3", "k5"), ids(second));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void cursorOfAnotherSortPropertyIsInvalidInput() {
+        final String cursor = dao.getKeysetPage(Client.class, "clientId", true, null, 1).getNextCursor();
+        try {
+            dao.getKeysetPage(Client.class, "description", true, cursor, 1);
+            fail("accepted cursor " + cursor);
+        } catch (final ApplicationException e) {
+            assertEquals(ErrorCode.INVALID_INPUT, e.getErrorCode());
+        }
+    }
+
+    private List<List<String>> pages(final String sortProperty, final boolean ascending, final int pageSize) {
+        final List<List<String>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            final KeysetPage<Client> page = dao.getKeysetPage(Client.class, sortProperty, ascending, cursor, pageSize);
+            pages.add(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private static List<String> ids(final KeysetPage<Client> page) {
+        final List<String> ids = new ArrayList<>();
+        for (Client client : page.getItems()) {
+            ids.add(client.getClientId());
+        }
+        return ids;
+    }
+}
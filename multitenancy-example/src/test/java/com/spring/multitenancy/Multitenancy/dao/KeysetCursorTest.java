@@ -0,0 +1,53 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import com.spring.multitenancy.Multitenancy.exception.ApplicationException;
+import com.spring.multitenancy.Multitenancy.exception.ErrorCode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void decodeReturnsTheEncodedValues() {
+        final String cursor = KeysetCursor.encode("description", "a.b/c+d=", "été", "");
+
+        assertArrayEquals(new String[]{"a.b/c+d=", "été", ""},
+                KeysetCursor.decode(cursor, "description", 3));
+    }
+
+    @Test
+    public void cursorIsUrlSafe() {
+        final String cursor = KeysetCursor.encode("clientId", "??>>~~");
+
+        assertEquals(cursor, cursor.replaceAll("[^A-Za-z0-9_.-]", ""));
+    }
+
+    @Test
+    public void decodeRejectsACursorOfAnotherSortProperty() {
+        assertInvalid(KeysetCursor.encode("description", "a", "1"), "clientId", 2);
+    }
+
+    @Test
+    public void decodeRejectsAWrongNumberOfValues() {
+        assertInvalid(KeysetCursor.encode("description", "a"), "description", 2);
+        assertInvalid(KeysetCursor.encode("description", "a", "1", "2"), "description", 2);
+    }
+
+    @Test
+    public void decodeRejectsMalformedBase64() {
+        assertInvalid(KeysetCursor.encode("description", "a") + "!", "description", 1);
+        assertInvalid("*." + KeysetCursor.encode("a"), "description", 1);
+    }
+
+    private static void assertInvalid(final String cursor, final String sortProperty, final int valueCount) {
+        try {
+            KeysetCursor.decode(cursor, sortProperty, valueCount);
+            fail("accepted cursor " + cursor);
+        } catch (final ApplicationException e) {
+            assertEquals(ErrorCode.INVALID_INPUT, e.getErrorCode());
+        }
+    }
+}
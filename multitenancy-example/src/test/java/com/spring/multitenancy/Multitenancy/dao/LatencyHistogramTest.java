@@ -0,0 +1,83 @@
+package com.spring.multitenancy.Multitenancy.dao;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private static final long MAX_VALUE = (1L << 41) - 1;
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void valuesBelowTheFirstPowerOfTwoSplitAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(0, histogram.percentile(1 / 16d));
+        assertEquals(7, histogram.percentile(0.5));
+        assertEquals(14, histogram.percentile(15 / 16d));
+        assertEquals(15, histogram.percentile(1));
+    }
+
+    @Test
+    public void bucketBoundariesSeparateNeighbouringValues() {
+        // 31 closes the last bucket of [16, 32), 32 opens the first bucket of [32, 64) which holds 32 to 35
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(31);
+        histogram.record(32);
+        histogram.record(1000);
+
+        assertEquals(31, histogram.percentile(1 / 3d));
+        assertEquals(35, histogram.percentile(2 / 3d));
+    }
+
+    @Test
+    public void percentileIsWithinTheBucketErrorOfTheValue() {
+        for (long value = 1; value < 50_000_000; value = value * 3 / 2 + 1) {
+            final LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(MAX_VALUE);
+
+            final long reported = histogram.percentile(0.5);
+            assertTrue(value + " reported as " + reported, reported >= value && reported <= value * 1.125 + 1);
+        }
+    }
+
+    @Test
+    public void highPercentilesPickTheRankedValue() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        // 500 is in [480, 511], 990 in [960, 1023], 999 in [960, 1023] too
+        assertEquals(511, histogram.percentile(0.5));
+        assertEquals(1000, histogram.percentile(0.99));
+        assertEquals(1000, histogram.percentile(0.999));
+        assertEquals(1000, histogram.getMax());
+    }
+
+    @Test
+    public void valuesBeyondTheRangeAreClampedToTheMaxValue() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(MAX_VALUE);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.percentile(1 / 3d));
+        assertEquals(MAX_VALUE, histogram.percentile(2 / 3d));
+        assertEquals(MAX_VALUE, histogram.percentile(1));
+        assertEquals(MAX_VALUE, histogram.getMax());
+    }
+}
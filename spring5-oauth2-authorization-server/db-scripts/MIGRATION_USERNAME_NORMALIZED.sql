@@ -0,0 +1,25 @@
+-- Adds the lower cased USERNAME_NORMALIZED lookup key to an existing `user` table, so a login is one probe of a
+-- unique index instead of a full scan comparing LOWER(USERNAME).
+--
+-- 1. Add the column, nullable so the rows can be filled while the table is in use.
+ALTER TABLE `user`
+  ADD COLUMN `USERNAME_NORMALIZED` varchar(50) DEFAULT NULL AFTER `USERNAME`,
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+-- 2. Deploy the application version looking users up by USERNAME_NORMALIZED, then call the backfill operation of the
+--    oauth2:type=Security,name=usernameBackfill MBean once it is fully deployed, so the rows inserted by the previous
+--    version during the deployment are filled too. Users without USERNAME_NORMALIZED cannot log in until then. It
+--    fills the rows in USER_ID order, in transactions of at most auth.username-backfill.batch-size rows, with the
+--    same normalization the logins are looked up with; LOWER() is not used as it lower cases some non ASCII letters,
+--    such as the dotted capital I, differently from Java. The application fills the column itself from then on.
+--    This count must then be 0:
+SELECT COUNT(*) FROM `user` WHERE `USERNAME_NORMALIZED` IS NULL;
+
+-- 3. Usernames differing only by case collide on the unique key, they must be renamed before step 4.
+SELECT `USERNAME_NORMALIZED`, COUNT(*) FROM `user` GROUP BY `USERNAME_NORMALIZED` HAVING COUNT(*) > 1;
+
+-- 4. Enforce the key.
+ALTER TABLE `user`
+  MODIFY `USERNAME_NORMALIZED` varchar(50) NOT NULL,
+  ADD UNIQUE KEY `USERNAME_NORMALIZED_UNIQUE` (`USERNAME_NORMALIZED`),
+  ALGORITHM=INPLACE, LOCK=NONE;
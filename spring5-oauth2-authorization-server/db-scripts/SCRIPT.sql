@@ -1,6 +1,7 @@
 CREATE TABLE `user` (
   `USER_ID` int(11) NOT NULL AUTO_INCREMENT,
   `USERNAME` varchar(50) NOT NULL,
+  `USERNAME_NORMALIZED` varchar(50) NOT NULL,
   `PASSWORD` varchar(100) NOT NULL,
   `FIRST_NAME` varchar(30) NOT NULL,
   `MIDDLE_NAME` varchar(30) DEFAULT NULL,
@@ -10,13 +11,15 @@ CREATE TABLE `user` (
   `ADDRESS` varchar(100) NOT NULL,
   `CITY` varchar(30) NOT NULL,
   `ZIP` varchar(10) DEFAULT NULL,
-  PRIMARY KEY (`USER_ID`)
+  PRIMARY KEY (`USER_ID`),
+  UNIQUE KEY `USERNAME_NORMALIZED_UNIQUE` (`USERNAME_NORMALIZED`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
 
 INSERT INTO `user`
 (
 `USERNAME`,
+`USERNAME_NORMALIZED`,
 `PASSWORD`,
 `FIRST_NAME`,
 `MIDDLE_NAME`,
@@ -30,7 +33,9 @@ INSERT INTO `user`
 VALUES
 (
 "dwaylon",
-"dwaylon@123",
+"dwaylon",
+-- BCrypt hash of dwaylon@123
+"$2a$10$DMzDJ.ZiaRPEk1nZcWKAKu8JeXLjq9gouCR8jXkKUR4srGBEnVy1G",
 "Waylon",
 "W",
 "Dalton",
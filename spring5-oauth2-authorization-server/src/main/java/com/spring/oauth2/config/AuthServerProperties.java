@@ -0,0 +1,209 @@
+package com.spring.oauth2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Externalized settings of the authorization server, bound from the {@code auth.*} properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthServerProperties {
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final UserCache userCache = new UserCache();
+
+    private final UsernameBackfill usernameBackfill = new UsernameBackfill();
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public UsernameBackfill getUsernameBackfill() {
+        return usernameBackfill;
+    }
+
+    public static class UsernameBackfill {
+
+        /**
+         * Whether the users without a normalized username are also filled at startup, which delays the startup of every
+         * deployment by a scan of the user table. Off by default, the backfill is run once from its MBean.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Max number of users filled per transaction.
+         */
+        private int batchSize = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class UserCache {
+
+        /**
+         * Whether the loaded users and their roles are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Max number of cached users, the least recently used are dropped first.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * Time in seconds a cached user is used before it is read again.
+         */
+        private long ttlSeconds = 300;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /**
+         * Number of threads hashing and verifying passwords, 0 for the number of cores.
+         */
+        private int threads = 0;
+
+        /**
+         * Max number of password checks waiting for a thread, the next ones are rejected at once.
+         */
+        private int queueCapacity = 32;
+
+        /**
+         * Time in milliseconds a request waits for its password check before it is rejected.
+         */
+        private long maxWaitMs = 5000;
+
+        /**
+         * BCrypt cost of new password hashes, 0 to pick the highest cost within target-verify-ms at startup.
+         */
+        private int cost = 0;
+
+        /**
+         * Time in milliseconds one password verification should take, used when cost is 0.
+         */
+        private long targetVerifyMs = 250;
+
+        /**
+         * Lowest BCrypt cost picked at startup.
+         */
+        private int minCost = 10;
+
+        /**
+         * Highest BCrypt cost picked at startup.
+         */
+        private int maxCost = 16;
+
+        /**
+         * Whether stored passwords which are not hashes are compared as plain text, they are hashed on the next login.
+         */
+        private boolean acceptPlaintext = false;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public void setCost(int cost) {
+            this.cost = cost;
+        }
+
+        public long getTargetVerifyMs() {
+            return targetVerifyMs;
+        }
+
+        public void setTargetVerifyMs(long targetVerifyMs) {
+            this.targetVerifyMs = targetVerifyMs;
+        }
+
+        public int getMinCost() {
+            return minCost;
+        }
+
+        public void setMinCost(int minCost) {
+            this.minCost = minCost;
+        }
+
+        public int getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(int maxCost) {
+            this.maxCost = maxCost;
+        }
+
+        public boolean isAcceptPlaintext() {
+            return acceptPlaintext;
+        }
+
+        public void setAcceptPlaintext(boolean acceptPlaintext) {
+            this.acceptPlaintext = acceptPlaintext;
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.spring.oauth2.config;
 
+import com.spring.oauth2.repository.UserRepository;
+import com.spring.oauth2.security.AdaptivePasswordEncoder;
+import com.spring.oauth2.security.BoundedPasswordEncoder;
+import com.spring.oauth2.security.PasswordHashingExecutor;
+import com.spring.oauth2.security.RehashingAuthenticationProvider;
+import com.spring.oauth2.service.UserDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,7 +14,6 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
@@ -23,13 +28,33 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private AdaptivePasswordEncoder adaptivePasswordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+        return new BoundedPasswordEncoder(adaptivePasswordEncoder, passwordHashingExecutor);
+    }
+
+    @Bean
+    public RehashingAuthenticationProvider authenticationProvider() {
+        RehashingAuthenticationProvider provider = new RehashingAuthenticationProvider(adaptivePasswordEncoder,
+                passwordEncoder(), userRepository, userDetailsCache);
+        provider.setUserDetailsService(userDetailsService);
+        return provider;
     }
 
     @Autowired
     public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        auth.authenticationProvider(authenticationProvider());
     }
 }
@@ -3,24 +3,35 @@ package com.spring.oauth2.entity;
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
 @Table(name = "user")
+@NamedEntityGraph(name = User.ROLES_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "userRoles", subgraph = "role"),
+        subgraphs = @NamedSubgraph(name = "role", attributeNodes = @NamedAttributeNode("role")))
 public class User implements Serializable {
 
+    /**
+     * Entity graph fetching the user role cross references and their roles together with the user.
+     */
+    public static final String ROLES_GRAPH = "User.userRoles.role";
+
     public User() {
     }
 
     public User(User user){
         this.userId = user.getUserId();
         this.username = user.getUsername();
+        this.usernameNormalized = user.getUsernameNormalized();
         this.password = user.getPassword();
         this.userRoles = user.getUserRoles();
     }
 
     private Integer userId;
     private String username;
+    private String usernameNormalized;
     private String password;
     private Set<UserRole> userRoles = new HashSet<>();
 
@@ -43,6 +54,32 @@ public class User implements Serializable {
         this.username = username;
     }
 
+    /**
+     * Lower cased username, the uniquely indexed key the users are looked up by. It is derived from the username
+     * whenever the user is saved.
+     */
+    @Column(name = "username_normalized")
+    public String getUsernameNormalized() {
+        return usernameNormalized;
+    }
+
+    public void setUsernameNormalized(String usernameNormalized) {
+        this.usernameNormalized = usernameNormalized;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeUsername() {
+        usernameNormalized = username == null ? null : normalizeUsername(username);
+    }
+
+    /**
+     * @return the key a username is stored and looked up with, whatever its case
+     */
+    public static String normalizeUsername(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
     @Column(name = "password")
     public String getPassword() {
         return password;
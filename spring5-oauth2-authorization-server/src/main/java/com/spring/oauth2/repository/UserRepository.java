@@ -1,14 +1,43 @@
 package com.spring.oauth2.repository;
 
 import com.spring.oauth2.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, String> {
 
-    @Query("SELECT u FROM User u WHERE LOWER(u.username) = LOWER(:username)")
-    User findByUsernameCaseInsensitive(@Param("username") String username);
+    /**
+     * Looks the user up by the uniquely indexed USERNAME_NORMALIZED column.
+     *
+     * @param usernameNormalized Represents the username normalized by User#normalizeUsername(String).
+     */
+    @Query("SELECT u FROM User u WHERE u.usernameNormalized = :usernameNormalized")
+    User findByUsernameNormalized(@Param("usernameNormalized") String usernameNormalized);
+
+    /**
+     * Loads the user together with its user role cross references and their roles in one join query, the roles of a
+     * login cost no query of their own whatever their number.
+     *
+     * @param usernameNormalized Represents the username normalized by User#normalizeUsername(String).
+     */
+    @EntityGraph(value = User.ROLES_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    @Query("SELECT DISTINCT u FROM User u WHERE u.usernameNormalized = :usernameNormalized")
+    User findWithRolesByUsernameNormalized(@Param("usernameNormalized") String usernameNormalized);
+
+    /**
+     * Replaces the password of the user unless it was changed since oldPassword was read.
+     *
+     * @return the number of updated rows, 0 when the password was changed in between
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.userId = :userId AND u.password = :oldPassword")
+    int updatePassword(@Param("userId") Integer userId, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
 
     /*@Query
     User findByEmail(String email);
@@ -0,0 +1,148 @@
+package com.spring.oauth2.security;
+
+import com.spring.oauth2.config.AuthServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt PasswordEncoder whose cost is a deployment setting instead of a constant. New hashes use the configured
+ * cost, or when none is configured the highest cost whose verification stays within target-verify-ms on this host,
+ * measured at startup. A stored hash is verified with the cost it was created with, read from the hash itself, and
+ * {@link #upgradeEncoding(String)} tells whether it should be replaced by a hash with the current cost, which the
+ * RehashingAuthenticationProvider does on the next successful login. Only weaker hashes are replaced: a hash with a
+ * higher cost, such as one created before the cost was lowered or on a faster host, is kept.
+ * <p>
+ * Passwords stored in plain text, such as rows seeded before passwords were hashed, are only accepted when
+ * accept-plaintext is set, and are then always upgraded.
+ */
+@Component
+@ManagedResource(objectName = "oauth2:type=Security,name=adaptivePasswordEncoder")
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2a?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final int CALIBRATION_RUNS = 3;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final AtomicLong plaintextMatches = new AtomicLong();
+
+    private final AtomicLong outdatedHashes = new AtomicLong();
+
+    @Autowired
+    AuthServerProperties properties;
+
+    private volatile int cost;
+
+    private volatile double estimatedVerifyMillis;
+
+    @PostConstruct
+    public void start() {
+        final AuthServerProperties.PasswordHashing hashing = properties.getPasswordHashing();
+        if (hashing.getCost() > 0) {
+            cost = hashing.getCost();
+            logger.info("Password hashes use the configured BCrypt cost {}", cost);
+        } else {
+            calibrate(hashing.getMinCost(), hashing.getMaxCost(), hashing.getTargetVerifyMs());
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return BCrypt.hashpw(rawPassword.toString(), BCrypt.gensalt(cost, random));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        if (BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+            return BCrypt.checkpw(rawPassword.toString(), encodedPassword);
+        }
+        if (!properties.getPasswordHashing().isAcceptPlaintext()) {
+            logger.warn("Stored password is not a BCrypt hash and plain text passwords are not accepted");
+            return false;
+        }
+        final boolean matches = MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                encodedPassword.getBytes(StandardCharsets.UTF_8));
+        if (matches) {
+            plaintextMatches.incrementAndGet();
+        }
+        return matches;
+    }
+
+    /**
+     * @return whether the stored password should be hashed again with the current cost, which is the case for plain
+     *         text passwords and hashes created with a lower cost
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        final Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        final boolean outdated = !matcher.matches() || Integer.parseInt(matcher.group(1)) < cost;
+        if (outdated) {
+            outdatedHashes.incrementAndGet();
+        }
+        return outdated;
+    }
+
+    /**
+     * The time of a BCrypt hash doubles with every cost increment, so one measurement at min-cost gives the estimate
+     * of every cost.
+     */
+    private void calibrate(int minCost, int maxCost, long targetVerifyMs) {
+        final String password = "calibration-" + random.nextLong();
+        BCrypt.hashpw(password, BCrypt.gensalt(minCost, random));
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            final long start = System.nanoTime();
+            BCrypt.hashpw(password, BCrypt.gensalt(minCost, random));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int chosen = minCost;
+        double millis = best / 1e6;
+        while (chosen < maxCost && millis * 2 <= targetVerifyMs) {
+            chosen++;
+            millis *= 2;
+        }
+        cost = chosen;
+        estimatedVerifyMillis = millis;
+        logger.info("Password hashes use BCrypt cost {}, about {} ms per verification for a target of {} ms", cost,
+                Math.round(millis), targetVerifyMs);
+    }
+
+    @ManagedAttribute(description = "BCrypt cost of new password hashes")
+    public int getCost() {
+        return cost;
+    }
+
+    @ManagedAttribute(description = "Verify time in milliseconds estimated at startup, 0 when the cost is configured")
+    public double getEstimatedVerifyMillis() {
+        return estimatedVerifyMillis;
+    }
+
+    @ManagedAttribute(description = "Number of logins matched against a plain text password")
+    public long getPlaintextMatches() {
+        return plaintextMatches.get();
+    }
+
+    @ManagedAttribute(description = "Number of stored passwords found with a lower cost or in plain text")
+    public long getOutdatedHashes() {
+        return outdatedHashes.get();
+    }
+}
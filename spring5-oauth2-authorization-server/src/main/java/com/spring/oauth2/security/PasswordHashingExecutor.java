@@ -0,0 +1,183 @@
+package com.spring.oauth2.security;
+
+import com.spring.oauth2.config.AuthServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool the password hashes are computed on. A BCrypt check costs hundreds of milliseconds of CPU, so only as
+ * many checks as there are cores run at the same time and at most queue-capacity wait for a thread: once the queue is
+ * full a login is rejected at once with a PasswordHashingUnavailableException instead of holding a request thread,
+ * which keeps the request threads free for the refresh token and the other endpoints during a burst of logins.
+ */
+@Component
+@ManagedResource(objectName = "oauth2:type=Security,name=passwordHashingExecutor")
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong timedOut = new AtomicLong();
+
+    private final LongAdder hashes = new LongAdder();
+
+    private final LongAdder hashNanos = new LongAdder();
+
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    @Autowired
+    AuthServerProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    private long maxWaitMs;
+
+    @PostConstruct
+    public void start() {
+        final AuthServerProperties.PasswordHashing hashing = properties.getPasswordHashing();
+        final int threads = hashing.getThreads() > 0 ? hashing.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(hashing.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        maxWaitMs = hashing.getMaxWaitMs();
+        logger.info("Password hashing executor started with {} threads and a queue of {}", threads,
+                hashing.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * This method is used to run a hash computation on the pool, the calling thread waits for its result.
+     *
+     * @param hash Represents the hash computation.
+     *
+     * @return the result of the computation
+     * @throws PasswordHashingUnavailableException when the queue is full or the result is not ready in time
+     */
+    public <T> T execute(final Supplier<T> hash) {
+        final long submitted = System.nanoTime();
+        final Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                final long start = System.nanoTime();
+                waitNanos.add(start - submitted);
+                try {
+                    return hash.get();
+                } finally {
+                    record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingUnavailableException("Password hashing is saturated, "
+                    + executor.getQueue().size() + " checks are waiting", e);
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new PasswordHashingUnavailableException("Password check did not complete within " + maxWaitMs
+                    + " ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for the password check", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void record(long nanos) {
+        hashes.increment();
+        hashNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxHashNanos.get()) && !maxHashNanos.compareAndSet(max, nanos)) {
+            // retry until the max is updated or a longer hash is recorded
+        }
+    }
+
+    @ManagedAttribute(description = "Number of hashing threads")
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @ManagedAttribute(description = "Number of threads computing a hash")
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "Number of password checks waiting for a thread")
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @ManagedAttribute(description = "Number of hashes computed")
+    public long getHashCount() {
+        return hashes.sum();
+    }
+
+    @ManagedAttribute(description = "Mean time in milliseconds to compute a hash")
+    public double getMeanHashMillis() {
+        final long count = hashes.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1e6 / count;
+    }
+
+    @ManagedAttribute(description = "Max time in milliseconds to compute a hash")
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1e6;
+    }
+
+    @ManagedAttribute(description = "Mean time in milliseconds a password check waited for a thread")
+    public double getMeanWaitMillis() {
+        final long count = hashes.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    @ManagedAttribute(description = "Number of password checks rejected because the queue was full")
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @ManagedAttribute(description = "Number of password checks abandoned after max-wait-ms")
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.spring.oauth2.security;
+
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+/**
+ * Thrown when a password check is rejected because the PasswordHashingExecutor is saturated. The token endpoint
+ * renders it as a 503 temporarily_unavailable error, the client is expected to retry later.
+ */
+public class PasswordHashingUnavailableException extends OAuth2Exception {
+
+    private static final long serialVersionUID = 7310546248173520694L;
+
+    public PasswordHashingUnavailableException(String msg) {
+        super(msg);
+    }
+
+    public PasswordHashingUnavailableException(String msg, Throwable t) {
+        super(msg, t);
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+        return "temporarily_unavailable";
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+        return 503;
+    }
+}
@@ -0,0 +1,73 @@
+package com.spring.oauth2.security;
+
+import com.spring.oauth2.entity.CustomUserDetails;
+import com.spring.oauth2.repository.UserRepository;
+import com.spring.oauth2.service.UserDetailsCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * DaoAuthenticationProvider which, once the password of a login is verified, replaces a stored password the
+ * AdaptivePasswordEncoder reports as outdated by a hash with the current cost. The cost of every account is raised to
+ * the deployment setting as users log in, without a password reset.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(RehashingAuthenticationProvider.class);
+
+    private final AdaptivePasswordEncoder adaptivePasswordEncoder;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final UserRepository userRepository;
+
+    private final UserDetailsCache userDetailsCache;
+
+    /**
+     * @param adaptivePasswordEncoder Represents the encoder telling which stored passwords are outdated.
+     * @param passwordEncoder         Represents the encoder the passwords are checked and hashed with, which
+     *                                delegates to the adaptive one.
+     * @param userRepository          Represents the repository the new hashes are saved with.
+     * @param userDetailsCache        Represents the cache the users with a new hash are dropped from.
+     */
+    public RehashingAuthenticationProvider(AdaptivePasswordEncoder adaptivePasswordEncoder,
+                                           PasswordEncoder passwordEncoder, UserRepository userRepository,
+                                           UserDetailsCache userDetailsCache) {
+        this.adaptivePasswordEncoder = adaptivePasswordEncoder;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        if (userDetails instanceof CustomUserDetails
+                && adaptivePasswordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            rehash((CustomUserDetails) userDetails, authentication.getCredentials().toString());
+        }
+    }
+
+    /**
+     * The login has already succeeded, a failure to save the new hash only leaves the old one in place until the
+     * next login.
+     */
+    private void rehash(CustomUserDetails user, String rawPassword) {
+        try {
+            final String encodedPassword = passwordEncoder.encode(rawPassword);
+            userRepository.updatePassword(user.getUserId(), user.getPassword(), encodedPassword);
+            userDetailsCache.invalidate(user.getUsername());
+            logger.debug("Password of user {} hashed again with the current cost", user.getUserId());
+        } catch (RuntimeException e) {
+            logger.warn("Password of user {} could not be hashed again", user.getUserId(), e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.spring.oauth2.service;
+
+import com.spring.oauth2.config.AuthServerProperties;
+import com.spring.oauth2.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the UserDetails loaded by UserDetailsServiceImpl, keyed by the normalized username, so the
+ * password grants and refresh token grants of a user do not read the user and its roles again on every call.
+ * Entries expire ttl-seconds after they were loaded, which bounds how long a change made outside of the application
+ * goes unnoticed; changes made by the application call {@link #invalidate(String)} or {@link #invalidateAll()}.
+ */
+@Component
+@ManagedResource(objectName = "oauth2:type=Security,name=userDetailsCache")
+public class UserDetailsCache {
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong expirations = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    AuthServerProperties properties;
+
+    private LinkedHashMap<String, Entry> entries;
+
+    private boolean enabled;
+
+    private int maxSize;
+
+    private long ttlNanos;
+
+    @PostConstruct
+    public void start() {
+        final AuthServerProperties.UserCache userCache = properties.getUserCache();
+        enabled = userCache.isEnabled() && userCache.getMaxSize() > 0;
+        maxSize = userCache.getMaxSize();
+        ttlNanos = TimeUnit.SECONDS.toNanos(userCache.getTtlSeconds());
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the cached UserDetails of the username, null when it is not cached or has expired
+     */
+    public UserDetails get(String username) {
+        if (!enabled) {
+            return null;
+        }
+        final String key = User.normalizeUsername(username);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.userDetails;
+                }
+                entries.remove(key);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String username, UserDetails userDetails) {
+        if (!enabled) {
+            return;
+        }
+        final String key = User.normalizeUsername(username);
+        synchronized (this) {
+            entries.put(key, new Entry(userDetails, System.nanoTime()));
+            final Iterator<Entry> eldestFirst = entries.values().iterator();
+            while (entries.size() > maxSize) {
+                eldestFirst.next();
+                eldestFirst.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * This method is used to drop the cached UserDetails of a user whose password, roles or status changed.
+     */
+    @ManagedOperation(description = "Drops the cached details of the username")
+    public void invalidate(String username) {
+        final String key = User.normalizeUsername(username);
+        synchronized (this) {
+            if (entries.remove(key) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * This method is used to drop every cached UserDetails, after a change affecting many users such as a role
+     * being renamed or removed.
+     */
+    @ManagedOperation(description = "Drops the cached details of every user")
+    public void invalidateAll() {
+        synchronized (this) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    @ManagedAttribute(description = "Number of cached users")
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @ManagedAttribute(description = "Number of lookups answered from the cache")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "Number of lookups which read the database")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @ManagedAttribute(description = "Ratio of lookups answered from the cache")
+    public double getHitRatio() {
+        final long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @ManagedAttribute(description = "Number of users dropped to stay within max-size")
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @ManagedAttribute(description = "Number of users dropped after ttl-seconds")
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    @ManagedAttribute(description = "Number of users dropped by an invalidation")
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    private static final class Entry {
+
+        private final UserDetails userDetails;
+
+        private final long loadedAt;
+
+        private Entry(UserDetails userDetails, long loadedAt) {
+            this.userDetails = userDetails;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -11,8 +11,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -22,19 +24,46 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UserDetailsCache userDetailsCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * A cached user is returned without a transaction, a user is only read from the database on a cache miss.
+     */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(final String login) {
+        final UserDetails cached = userDetailsCache.get(login);
+        if (cached != null) {
+            return cached;
+        }
+        final UserDetails userDetails = readOnlyTemplate.execute(status -> loadFromDatabase(login));
+        userDetailsCache.put(login, userDetails);
+        return userDetails;
+    }
+
+    private UserDetails loadFromDatabase(final String login) {
 
-        String lowercaseLogin = login.toLowerCase();
+        String lowercaseLogin = User.normalizeUsername(login);
 
         User userFromDatabase;
-            userFromDatabase = userRepository.findByUsernameCaseInsensitive(lowercaseLogin);
+            userFromDatabase = userRepository.findWithRolesByUsernameNormalized(lowercaseLogin);
 
         if (userFromDatabase == null) {
             throw new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database");
         }
 
+        // the roles are fetched with the user, the cached user is used outside of the transaction
         Collection<GrantedAuthority> grantedAuthorities = new ArrayList<>();
         for (UserRole userRole : userFromDatabase.getUserRoles()) {
             GrantedAuthority grantedAuthority = new SimpleGrantedAuthority(userRole.getRole().getRoleName());
@@ -0,0 +1,102 @@
+package com.spring.oauth2.service;
+
+import com.spring.oauth2.config.AuthServerProperties;
+import com.spring.oauth2.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the USERNAME_NORMALIZED column of the users added before it existed, or by an older version of the
+ * application, with {@link User#normalizeUsername(String)}. The stored keys are computed by the same code the logins
+ * are looked up with, which the LOWER function of the database would not guarantee for usernames outside of ASCII.
+ * The users are filled in USER_ID order, in transactions of at most batch-size rows, each batch continuing from the
+ * last USER_ID of the previous one so that a batch reads only the rows it fills.
+ * <p>
+ * A full backfill scans the user table, it is run once from the MBean during the migration rather than on the startup
+ * path of every deployment. It runs at startup too, before any login is served, only when enabled.
+ */
+@Component
+@ManagedResource(objectName = "oauth2:type=Security,name=usernameBackfill")
+public class UsernameBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameBackfill.class);
+
+    private static final String SELECT_USERS = "SELECT `USER_ID`, `USERNAME` FROM `user`"
+            + " WHERE `USER_ID` > ? AND `USERNAME_NORMALIZED` IS NULL ORDER BY `USER_ID` LIMIT ?";
+
+    private static final String UPDATE_USER =
+            "UPDATE `user` SET `USERNAME_NORMALIZED` = ? WHERE `USER_ID` = ? AND `USERNAME_NORMALIZED` IS NULL";
+
+    @Autowired
+    AuthServerProperties properties;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (properties.getUsernameBackfill().isEnabled()) {
+            backfill();
+        }
+    }
+
+    /**
+     * This method is used to fill the normalized username of every user which has none, such as the users added by
+     * an older version of the application while this one was being deployed.
+     *
+     * @return int Represents the number of users filled.
+     */
+    @ManagedOperation(description = "Fills the normalized username of the users which have none")
+    public int backfill() {
+        final int batchSize = Math.max(1, properties.getUsernameBackfill().getBatchSize());
+        final List<Object[]> updates = new ArrayList<>(Math.min(batchSize, 10000));
+        int lastUserId = Integer.MIN_VALUE;
+        int filled = 0;
+        do {
+            updates.clear();
+            final int afterUserId = lastUserId;
+            transactionTemplate.execute(status -> fillBatch(afterUserId, batchSize, updates));
+            filled += updates.size();
+            if (!updates.isEmpty()) {
+                lastUserId = (Integer) updates.get(updates.size() - 1)[1];
+            }
+        } while (updates.size() == batchSize);
+        if (filled > 0) {
+            logger.info("Filled the normalized username of {} users", filled);
+        }
+        return filled;
+    }
+
+    /**
+     * Fills the first batchSize users without a normalized username after afterUserId, every one of them has one once
+     * the batch commits.
+     *
+     * @param updates Represents the updates of the batch, in USER_ID order, the user id being their second element.
+     */
+    private Object fillBatch(int afterUserId, int batchSize, List<Object[]> updates) {
+        jdbcTemplate.query(SELECT_USERS, rs -> {
+            updates.add(new Object[]{User.normalizeUsername(rs.getString(2)), rs.getInt(1)});
+        }, afterUserId, batchSize);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_USER, updates);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.spring.oauth2.security;
+
+import com.spring.oauth2.config.AuthServerProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptivePasswordEncoderTest {
+
+    private static final int COST = 6;
+
+    private AdaptivePasswordEncoder encoder;
+
+    @Before
+    public void setUp() {
+        encoder = new AdaptivePasswordEncoder();
+        encoder.properties = new AuthServerProperties();
+        encoder.properties.getPasswordHashing().setCost(COST);
+        encoder.properties.getPasswordHashing().setAcceptPlaintext(true);
+        encoder.start();
+    }
+
+    @Test
+    public void upgradesHashesWithALowerCost() {
+        assertTrue(encoder.upgradeEncoding(BCrypt.hashpw("secret", BCrypt.gensalt(COST - 2))));
+        assertEquals(1, encoder.getOutdatedHashes());
+    }
+
+    @Test
+    public void keepsHashesWithTheCurrentCost() {
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertEquals(0, encoder.getOutdatedHashes());
+    }
+
+    @Test
+    public void keepsHashesWithAHigherCost() {
+        final String stronger = BCrypt.hashpw("secret", BCrypt.gensalt(COST + 2));
+
+        assertFalse(encoder.upgradeEncoding(stronger));
+        assertTrue(encoder.matches("secret", stronger));
+        assertEquals(0, encoder.getOutdatedHashes());
+    }
+
+    @Test
+    public void upgradesPlainTextPasswords() {
+        assertTrue(encoder.matches("secret", "secret"));
+        assertTrue(encoder.upgradeEncoding("secret"));
+        assertEquals(1, encoder.getOutdatedHashes());
+    }
+}